@@ -0,0 +1,14 @@
+import com.google.inject.AbstractModule;
+
+import utils.CardCatalogStartup;
+
+/**
+ * Guice module picked up by Play at startup (the root package Module is loaded by default).
+ */
+public class Module extends AbstractModule {
+
+	@Override
+	protected void configure() {
+		bind(CardCatalogStartup.class).asEagerSingleton();
+	}
+}
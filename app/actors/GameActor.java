@@ -1,25 +1,32 @@
 package actors;
 
-import java.util.HashMap;
-import java.util.Map;
+import java.util.Collections;
 import java.util.Set;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
 import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.databind.node.ObjectNode;
 
 import akka.actor.AbstractActor;
 import akka.actor.ActorRef;
+import commands.BasicCommands;
+import commands.ClientSession;
 import events.CardClicked;
 import events.EndTurnClicked;
+import events.EventType;
 import events.EventProcessor;
 import events.Heartbeat;
+import events.InboundEvent;
+import events.InboundEventDecoder;
 import events.Initalize;
 import events.OtherClicked;
 import events.TileClicked;
 import events.UnitMoving;
 import events.UnitStopped;
-import play.libs.Json;
+import metrics.EventMetrics;
+import metrics.jfr.EventProcessedEvent;
+import services.LegalActionService;
 import structures.GameState;
 import utils.ImageListForPreLoad;
 
@@ -35,92 +42,150 @@ import utils.ImageListForPreLoad;
  */
 public class GameActor extends AbstractActor {
 
-	private ObjectMapper mapper = new ObjectMapper(); // Jackson Java Object Serializer, is used to turn java objects to Strings
+	private static final Logger log = LoggerFactory.getLogger(GameActor.class);
+
 	private ActorRef out; // The ActorRef can be used to send messages to the front-end UI
-	private Map<String,EventProcessor> eventProcessors; // Classes used to process each type of event
+	// Classes used to process each type of event
+	private final EventProcessor initalize = new Initalize();
+	private final EventProcessor heartbeat = new Heartbeat();
+	private final EventProcessor unitMoving = new UnitMoving();
+	private final EventProcessor unitStopped = new UnitStopped();
+	private final EventProcessor tileClicked = new TileClicked();
+	private final EventProcessor cardClicked = new CardClicked();
+	private final EventProcessor endTurnClicked = new EndTurnClicked();
+	private final EventProcessor otherClicked = new OtherClicked();
+	private final LegalActionService legalActionService = new LegalActionService();
 	private GameState gameState; // A class that can be used to hold game state information
+	private ClientSession session; // Per-connection command state (game id, command counters)
 
 	/**
 	 * Constructor for the GameActor. This is called by the GameController when the websocket
 	 * connection to the front-end is established.
 	 * @param out
 	 */
-	@SuppressWarnings("deprecation")
 	public GameActor(ActorRef out) {
+		this(out, Collections.emptySet());
+	}
+
+	/**
+	 * @param out
+	 * @param features protocol features requested by the front-end (see ClientSession)
+	 */
+	@SuppressWarnings("deprecation")
+	public GameActor(ActorRef out, Set<String> features) {
 
 		this.out = out; // save this, so we can send commands to the front-end later
+		this.session = ClientSession.openSocket(out, features);
 
-		// create class instances to respond to the various events that we might recieve
-		eventProcessors = new HashMap<String,EventProcessor>();
-		eventProcessors.put("initalize", new Initalize());
-		eventProcessors.put("heartbeat", new Heartbeat());
-		eventProcessors.put("unitmoving", new UnitMoving());
-		eventProcessors.put("unitstopped", new UnitStopped());
-		eventProcessors.put("tileclicked", new TileClicked());
-		eventProcessors.put("cardclicked", new CardClicked());
-		eventProcessors.put("endturnclicked", new EndTurnClicked());
-		eventProcessors.put("otherclicked", new OtherClicked());
-		
 		// Initalize a new game state object
 		gameState = new GameState();
 		
 		// Get the list of image files to pre-load the UI with
 		Set<String> images = ImageListForPreLoad.getImageListForPreLoad();
 		
-		try {
-			ObjectNode readyMessage = Json.newObject();
-			readyMessage.put("messagetype", "actorReady");
-			readyMessage.put("preloadImages", mapper.readTree(mapper.writeValueAsString(images)));
-			out.tell(readyMessage, out);
-		} catch (Exception e) {
-			e.printStackTrace();
-		}
+		BasicCommands.actorReady(out, images);
+	}
+
+	@Override
+	public void postStop() throws Exception {
+		ClientSession.close(out);
+		super.postStop();
 	}
 
 	/**
-	 * This method simply farms out the processing of the json messages from the front-end to the
-	 * processMessage method
+	 * This method simply farms out the processing of the events from the front-end to the
+	 * processMessage method. The websocket flow decodes frames into InboundEvents; JsonNode
+	 * messages (e.g. sent by tests) are decoded here.
 	 * @return
 	 */
 	public Receive createReceive() {
 		return receiveBuilder()
-				.match(JsonNode.class, message -> {
-					String type = message.get("messagetype").asText();
-					String key = type.toLowerCase();
+				.match(InboundEvent.class, this::onEvent)
+				.match(JsonNode.class, message -> onEvent(InboundEventDecoder.decode(message)))
+				.build();
+	}
+
+	private void onEvent(InboundEvent event) throws Exception {
+		switch (event.getType()) {
+			case ACK:
+				// flow control, not a game event (see OutboundQueue); acks from the websocket are
+				// handled by GameScreenController before they reach the actor
+				BasicCommands.acknowledge(out, event.getReceived());
+				return;
+			case UNKNOWN:
+				log.warn("Recieved unknown event type {}", event.getMessagetype());
+				return;
+			case HEARTBEAT:
+				break;
+			default:
+				log.debug("EVENT: {}", event.getMessagetype());
+		}
 
-					if (!"heartbeat".equals(key)) {
-						System.out.println("EVENT: " + type);
-					}
+		processMessage(event);
 
-					processMessage(key, message);
-				}).build();
+		if (session.getOutbound().isOverflowed()) {
+			// the client cannot keep up even with the critical commands, close the websocket
+			log.warn("Outbound queue overflow, closing game {}", session.getGameId());
+			getContext().stop(getSelf());
+		}
+	}
+
+	private EventProcessor processorFor(InboundEvent event) {
+		switch (event.getType()) {
+			case INITALIZE: return initalize;
+			case HEARTBEAT: return heartbeat;
+			case UNIT_MOVING: return unitMoving;
+			case UNIT_STOPPED: return unitStopped;
+			case TILE_CLICKED: return tileClicked;
+			case CARD_CLICKED: return cardClicked;
+			case END_TURN_CLICKED: return endTurnClicked;
+			case OTHER_CLICKED: return otherClicked;
+			default: return null;
+		}
 	}
 
 	/**
-	 * This looks up an event processor for the specified message type.
+	 * This looks up the event processor for the event's type.
 	 * Note that this processing is asynchronous.
-	 * @param messageType
-	 * @param message
-	 * @return
+	 * @param event
 	 * @throws Exception
 	 */
 	@SuppressWarnings({"deprecation"})
-	public void processMessage(String messageType, JsonNode message) throws Exception{
+	public void processMessage(InboundEvent event) throws Exception{
 
-		EventProcessor processor = eventProcessors.get(messageType);
+		EventProcessor processor = processorFor(event);
 		if (processor==null) {
 			// Unknown event type received
-			System.err.println("GameActor: Recieved unknown event type "+messageType);
+			log.warn("Recieved unknown event type {}", event.getMessagetype());
 		} else {
-			processor.processEvent(out, gameState, message); // process the event
+			String messageType = event.getType().wireName();
+			session.enterEvent(messageType);
+			EventProcessedEvent jfr = new EventProcessedEvent();
+			jfr.begin();
+			long start = System.nanoTime();
+			long sentBefore = BasicCommands.commandsSentOnThisThread();
+			try {
+				processor.processEvent(out, gameState, event); // process the event
+				if (event.getType()!=EventType.HEARTBEAT && session.hasFeature(ClientSession.LEGAL_ACTIONS)) {
+					// the event may have changed what the player can do (this includes the start of their turn)
+					BasicCommands.setLegalActions(out, legalActionService.compute(gameState));
+				}
+			} finally {
+				BasicCommands.flush(out); // send what the coalescer held back
+				long commands = BasicCommands.commandsSentOnThisThread()-sentBefore;
+				EventMetrics.record(messageType, System.nanoTime()-start, commands);
+				jfr.end();
+				if (jfr.shouldCommit()) {
+					jfr.fill(commands);
+					jfr.commit();
+				}
+				session.exitEvent();
+			}
 		}
 	}
 	
 	
 	public void reportError(String errorText) {
-		ObjectNode returnMessage = Json.newObject();
-		returnMessage.put("messagetype", "ERR");
-		returnMessage.put("error", errorText);
-		out.tell(returnMessage, out);
+		BasicCommands.reportError(out, errorText);
 	}
 }
@@ -2,7 +2,9 @@ package ai;
 
 import akka.actor.ActorRef;
 import commands.BasicCommands;
+import metrics.jfr.AiTurnEvent;
 import services.DamageService;
+import services.LegalActionService;
 import structures.*;
 import structures.basic.Position;
 import structures.basic.Tile;
@@ -10,10 +12,6 @@ import structures.basic.UnitAnimationType;
 import utils.BasicObjectBuilders;
 import utils.StaticConfFiles;
 
-import java.io.File;
-import java.nio.file.Files;
-import java.nio.file.Path;
-import java.nio.file.Paths;
 import java.util.*;
 
 /**
@@ -29,11 +27,21 @@ public class AIDecisionEngine {
         if (gameState == null) return;
         if (gameState.getCurrentPlayerId() != 2) return;
 
+        AiTurnEvent jfr = new AiTurnEvent();
+        jfr.begin();
+        long sentBefore = BasicCommands.commandsSentOnThisThread();
+
         // 1) Try play one creature
         tryPlayOneCreature(out, gameState);
 
         // 2) Attack with all possible units (including avatar)
         tryAttackAll(out, gameState);
+
+        jfr.end();
+        if (jfr.shouldCommit()) {
+            jfr.fill(BasicCommands.commandsSentOnThisThread() - sentBefore);
+            jfr.commit();
+        }
     }
 
     // ----------------------------
@@ -53,7 +61,7 @@ public class AIDecisionEngine {
             CardInstance ci = hand.getBySlot(slot);
             if (ci == null) continue;
 
-            if (!isCreatureCard(ci)) continue;
+            if (!ci.isCreature()) continue;
             if (ci.getManaCost() > ai.getMana()) continue;
 
             chosenSlot = slot;
@@ -66,15 +74,15 @@ public class AIDecisionEngine {
         Position summonPos = findSummonTileAdjacentToAnyAIUnit(gameState);
         if (summonPos == null) return;
 
-        Tile summonTile = BasicObjectBuilders.loadTile(summonPos.getTilex(), summonPos.getTiley());
+        Tile summonTile = BoardGrid.tile(summonPos.getTilex(), summonPos.getTiley());
 
         // Spend mana
         if (!ai.spendMana(chosen.getManaCost())) return;
         BasicCommands.setPlayer2Mana(out, gameState.getPlayer2());
 
         // Load unit config based on the card config
-        String unitConfig = resolveUnitConfig(chosen.getConfigFile(), chosen.getCardKey());
-        if (unitConfig == null || !fileExists(unitConfig)) {
+        String unitConfig = gameState.getCatalog().unitConfigFor(chosen.getConfigFile());
+        if (unitConfig == null) {
             // refund (fail safe)
             ai.setMana(Math.min(9, ai.getMana() + chosen.getManaCost()));
             BasicCommands.setPlayer2Mana(out, gameState.getPlayer2());
@@ -83,7 +91,7 @@ public class AIDecisionEngine {
 
         UnitEntity summoned;
         try {
-            summoned = (UnitEntity) BasicObjectBuilders.loadUnit(unitConfig, gameState.nextUnitId(), UnitEntity.class);
+            summoned = (UnitEntity) gameState.getCatalog().loadUnit(unitConfig, gameState.nextUnitId(), UnitEntity.class);
         } catch (Exception e) {
             summoned = null;
         }
@@ -94,10 +102,9 @@ public class AIDecisionEngine {
             return;
         }
 
-        // Stats mapping (fallback 1/1)
-        int[] stats = creatureStats(chosen.getCardKey());
-        int atk = stats[0];
-        int hp  = stats[1];
+        // Stats from the card definition (fallback 1/1)
+        int atk = chosen.getAttack();
+        int hp  = chosen.getHealth();
 
         summoned.setOwnerPlayerId(2);
         summoned.setMaxHealth(hp);
@@ -113,12 +120,12 @@ public class AIDecisionEngine {
         gameState.addUnit(summoned);
 
         // Visual summon effect + draw unit
-        try { Thread.sleep(60); } catch (Exception ignored) {}
+        BasicCommands.pause(out, 60);
         BasicCommands.playEffectAnimation(out, BasicObjectBuilders.loadEffect(StaticConfFiles.f1_summon), summonTile);
-        try { Thread.sleep(60); } catch (Exception ignored) {}
+        BasicCommands.pause(out, 60);
 
         BasicCommands.drawUnit(out, summoned, summonTile);
-        try { Thread.sleep(60); } catch (Exception ignored) {}
+        BasicCommands.pause(out, 60);
         BasicCommands.setUnitHealth(out, summoned, summoned.getHealth());
         BasicCommands.setUnitAttack(out, summoned, summoned.getAttack());
 
@@ -131,23 +138,32 @@ public class AIDecisionEngine {
         Board board = gameState.getBoard();
         if (board == null) return null;
 
-        // Collect all AI units currently on board
-        List<UnitEntity> aiUnits = new ArrayList<>();
-        for (UnitEntity u : gameState.getUnitsById().values()) {
-            if (u != null && u.getOwnerPlayerId() == 2) aiUnits.add(u);
-        }
+        // Empty tiles next to any AI unit (including avatar)
+        long free = board.getAttackCoverage(2) & ~board.getOccupiedMask();
+        if (free == 0) return null;
+
+        // Prefer tiles the human cannot attack next turn, then the one closest to the human avatar
+        long safe = free & ~board.getThreatCoverage(1);
+        return closestToHumanAvatar(gameState, board.getMasks(), safe != 0 ? safe : free);
+    }
 
-        // Try adjacent tiles around each AI unit; return first empty valid
-        for (UnitEntity u : aiUnits) {
-            Position p = u.getPosition();
-            List<Position> adj = adjacent8(p);
-            for (Position t : adj) {
-                if (!board.isValidPosition(t)) continue;
-                if (board.isOccupied(t)) continue;
-                return t;
+    private static Position closestToHumanAvatar(GameState gameState, BoardMasks masks, long cells) {
+        AvatarUnit target = gameState.getP1Avatar();
+        Position targetPos = target != null ? target.getPosition() : null;
+
+        Position best = null;
+        int bestDistance = Integer.MAX_VALUE;
+        for (long m = cells; m != 0; m &= m - 1) {
+            int i = Long.numberOfTrailingZeros(m);
+            int distance = targetPos == null ? 0 : Math.max(
+                    Math.abs(masks.tilex(i) - targetPos.getTilex()),
+                    Math.abs(masks.tiley(i) - targetPos.getTiley()));
+            if (distance < bestDistance) {
+                bestDistance = distance;
+                best = BoardGrid.position(masks.tilex(i), masks.tiley(i));
             }
         }
-        return null;
+        return best;
     }
 
     // ----------------------------
@@ -157,11 +173,8 @@ public class AIDecisionEngine {
     private static void tryAttackAll(ActorRef out, GameState gameState) {
         int t = gameState.getGlobalTurnNumber();
 
-        // Get all AI units (including avatar)
-        List<UnitEntity> aiUnits = new ArrayList<>();
-        for (UnitEntity u : gameState.getUnitsById().values()) {
-            if (u != null && u.getOwnerPlayerId() == 2) aiUnits.add(u);
-        }
+        // Get all AI units (including avatar); a copy, attacks can remove units
+        List<UnitEntity> aiUnits = new ArrayList<>(gameState.getUnitsOf(2));
 
         // Simple order: stronger units attack first
         aiUnits.sort((a,b) -> Integer.compare(b.getAttack(), a.getAttack()));
@@ -178,14 +191,14 @@ public class AIDecisionEngine {
     }
 
     private static UnitEntity chooseBestAdjacentTarget(GameState gameState, UnitEntity attacker) {
-        Position ap = attacker.getPosition();
-        UnitEntity best = null;
+        Board board = gameState.getBoard();
+        long around = board.getMasks().adjacent(board.indexOf(attacker.getPosition()));
+        long enemies = around & board.getOccupiedMask() & ~board.getOccupiedMask(attacker.getOwnerPlayerId());
 
-        for (Position p : adjacent8(ap)) {
-            if (!gameState.getBoard().isValidPosition(p)) continue;
-            UnitEntity u = gameState.getBoard().getUnitAt(p).orElse(null);
+        UnitEntity best = null;
+        for (Position p : LegalActionService.positions(board.getMasks(), enemies)) {
+            UnitEntity u = board.getUnitAt(p).orElse(null);
             if (u == null) continue;
-            if (u.getOwnerPlayerId() == attacker.getOwnerPlayerId()) continue;
 
             // Prefer enemy avatar first
             AvatarUnit p1Avatar = gameState.getP1Avatar();
@@ -256,32 +269,6 @@ public class AIDecisionEngine {
         }
     }
 
-    private static List<Position> adjacent8(Position from) {
-        int x = from.getTilex();
-        int y = from.getTiley();
-        List<Position> ps = new ArrayList<>();
-        for (int dx=-1; dx<=1; dx++) {
-            for (int dy=-1; dy<=1; dy++) {
-                if (dx==0 && dy==0) continue;
-                ps.add(tilePos(x+dx, y+dy));
-            }
-        }
-        return ps;
-    }
-
-    private static Position tilePos(int tilex, int tiley) {
-        Position p = new Position();
-        p.setTilex(tilex);
-        p.setTiley(tiley);
-        return p;
-    }
-
-    private static boolean isCreatureCard(CardInstance card) {
-        if (card == null) return false;
-        String k = card.getCardKey();
-        return k != null && k.contains("_c_u_");
-    }
-
     private static void compactHandLeft(Hand hand) {
         if (hand == null) return;
 
@@ -296,95 +283,4 @@ public class AIDecisionEngine {
             slot = Math.max(Hand.MIN_SLOT - 1, slot - 1);
         }
     }
-
-    private static int[] creatureStats(String cardKey) {
-        if (cardKey == null) return new int[]{1,1};
-        String k = cardKey.toLowerCase();
-
-        // --- Human deck (if AI shares some cards later, keep these) ---
-        if (k.contains("bad_omen")) return new int[]{0,1};
-        if (k.contains("gloom_chaser")) return new int[]{3,1};
-        if (k.contains("shadow_watcher")) return new int[]{3,2};
-        if (k.contains("nightsorrow_assassin")) return new int[]{4,2};
-        if (k.contains("rock_pulveriser")) return new int[]{1,4};
-        if (k.contains("bloodmoon_priestess")) return new int[]{3,3};
-        if (k.contains("shadowdancer")) return new int[]{5,4};
-
-        // --- AI deck (Lyonar generalist) ---
-        if (k.contains("swamp_entangler")) return new int[]{0,3};
-        if (k.contains("silverguard_squire")) return new int[]{1,1};
-        if (k.contains("skyrock_golem")) return new int[]{4,2};
-        if (k.contains("saberspine_tiger")) return new int[]{3,2};
-        if (k.contains("silverguard_knight")) return new int[]{1,5};
-        if (k.contains("young_flamewing")) return new int[]{5,4};
-        if (k.contains("ironcliffe_guardian")) return new int[]{3,10};
-
-        return new int[]{1,1};
-    }
-
-    private static String resolveUnitConfig(String cardConfigPath, String cardKey) {
-        String derived = null;
-        if (cardConfigPath != null) {
-            derived = cardConfigPath.replace("/cards/", "/units/")
-                    .replace("\\cards\\", "\\units\\")
-                    .replace("_c_u_", "_u_");
-            if (fileExists(derived)) return derived;
-        }
-
-        String token = extractToken(cardConfigPath, cardKey);
-        if (token == null || token.isEmpty()) return derived;
-
-        String unitsDir = "conf/gameconfs/units";
-        File dir = new File(unitsDir);
-        if (!dir.exists() || !dir.isDirectory()) return derived;
-
-        File[] files = dir.listFiles((d, name) -> name.endsWith(".json") && name.contains(token));
-        if (files != null && files.length > 0) {
-            return unitsDir + "/" + files[0].getName();
-        }
-
-        return derived;
-    }
-
-    private static boolean fileExists(String pathStr) {
-        if (pathStr == null) return false;
-        try {
-            Path p = Paths.get(pathStr);
-            return Files.exists(p);
-        } catch (Exception e) {
-            return false;
-        }
-    }
-
-    private static String extractToken(String cardConfigPath, String cardKey) {
-        String source = (cardConfigPath != null) ? cardConfigPath : cardKey;
-        if (source == null) return null;
-
-        String s = source;
-        int slash = Math.max(s.lastIndexOf('/'), s.lastIndexOf('\\'));
-        if (slash >= 0) s = s.substring(slash + 1);
-        if (s.endsWith(".json")) s = s.substring(0, s.length() - 5);
-
-        s = s.replace("c_u_", "");
-        s = s.replace("u_", "");
-
-        String[] parts = s.split("_");
-        if (parts.length >= 3 && isNumeric(parts[0]) && isNumeric(parts[1])) {
-            StringBuilder sb = new StringBuilder();
-            for (int i = 2; i < parts.length; i++) {
-                if (sb.length() > 0) sb.append("_");
-                sb.append(parts[i]);
-            }
-            s = sb.toString();
-        }
-        return s;
-    }
-
-    private static boolean isNumeric(String x) {
-        if (x == null || x.isEmpty()) return false;
-        for (int i = 0; i < x.length(); i++) {
-            if (!Character.isDigit(x.charAt(i))) return false;
-        }
-        return true;
-    }
 }
\ No newline at end of file
@@ -0,0 +1,436 @@
+package analytics;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+/**
+ * Offline card-balance analytics over the replay archive.
+ *
+ * The archive is a directory of newline-delimited JSON files (*.ndjson) with
+ * exactly one finished game per line:
+ *
+ * {"game":"...","winner":1,"events":[
+ *     {"t":"play","p":1,"card":"1_3_c_u_gloom_chaser","mana":2,"unit":3004},
+ *     {"t":"dmg","src":3004,"amt":3},
+ *     {"t":"dmg","card":"2_a1_c_s_truestrike","amt":2},
+ *     ...]}
+ *
+ * - "play" is a card leaving a hand; "unit" is only present when the card summoned a unit
+ * - "dmg" is damage dealt either by a unit ("src") or directly by a spell card ("card")
+ * - card keys may be bare keys or config paths (conf/gameconfs/cards/xxx.json)
+ *
+ * Each file is cut into byte segments that are processed in parallel with fork/join.
+ * A segment owns every line that starts inside it, so a line straddling a boundary is
+ * read by exactly one task. Lines are parsed with the streaming Jackson parser and only
+ * a handful of per-game counters are kept; no GameState or JSON tree is ever built.
+ *
+ * Usage: CardBalanceJob <archive dir or file>... [--out card_balance.csv] [--cards conf/gameconfs/cards]
+ */
+public class CardBalanceJob {
+
+    private static final long DEFAULT_SEGMENT_BYTES = 32L * 1024 * 1024;
+    private static final int READ_BUFFER = 1 << 20;
+
+    private static final JsonFactory JSON = new JsonFactory();
+
+    private final List<String> cardKeys;
+    private final Map<String, Integer> cardIndex;
+    private final long segmentBytes;
+
+    public CardBalanceJob(List<String> cardKeys) {
+        this(cardKeys, DEFAULT_SEGMENT_BYTES);
+    }
+
+    /**
+     * @param segmentBytes files are split until a segment is at most this long (tests use tiny segments)
+     */
+    CardBalanceJob(List<String> cardKeys, long segmentBytes) {
+        this.segmentBytes = segmentBytes;
+        this.cardKeys = Collections.unmodifiableList(new ArrayList<>(cardKeys));
+        Map<String, Integer> idx = new HashMap<>();
+        for (int i = 0; i < cardKeys.size(); i++) idx.put(cardKeys.get(i), i);
+        this.cardIndex = idx;
+    }
+
+    public static void main(String[] args) throws Exception {
+        List<Path> inputs = new ArrayList<>();
+        Path out = Paths.get("card_balance.csv");
+        String cardsDir = "conf/gameconfs/cards";
+
+        for (int i = 0; i < args.length; i++) {
+            if ("--out".equals(args[i]) && i + 1 < args.length) out = Paths.get(args[++i]);
+            else if ("--cards".equals(args[i]) && i + 1 < args.length) cardsDir = args[++i];
+            else inputs.add(Paths.get(args[i]));
+        }
+        if (inputs.isEmpty()) {
+            System.err.println("Usage: CardBalanceJob <archive dir or file>... [--out file.csv] [--cards dir]");
+            return;
+        }
+
+        CardBalanceJob job = new CardBalanceJob(cardKeysFrom(cardsDir));
+
+        long start = System.nanoTime();
+        CardBalanceStats stats = job.run(listArchiveFiles(inputs));
+        long ms = (System.nanoTime() - start) / 1_000_000;
+
+        try (Writer w = Files.newBufferedWriter(out, StandardCharsets.UTF_8)) {
+            stats.writeCsv(w, job.getCardKeys());
+        }
+        System.out.println("[CardBalanceJob] " + stats.getGames() + " games in " + ms + " ms -> " + out);
+    }
+
+    public List<String> getCardKeys() {
+        return cardKeys;
+    }
+
+    public CardBalanceStats run(List<Path> files) {
+        ForkJoinPool pool = ForkJoinPool.commonPool();
+        CardBalanceStats total = new CardBalanceStats(cardKeys.size());
+        List<SegmentTask> tasks = new ArrayList<>();
+        for (Path f : files) {
+            try {
+                long size = Files.size(f);
+                if (size == 0) continue;
+                SegmentTask t = new SegmentTask(f, 0, size);
+                tasks.add(t);
+                pool.execute(t);
+            } catch (IOException e) {
+                System.err.println("[CardBalanceJob] Skipping unreadable file: " + f);
+            }
+        }
+        for (SegmentTask t : tasks) total.merge(t.join());
+        return total;
+    }
+
+    /**
+     * Card keys of our decks, in file order (1_* then 2_*).
+     */
+    public static List<String> cardKeysFrom(String cardsDir) {
+        String[] names = new File(cardsDir).list();
+        if (names == null) return Collections.emptyList();
+        Arrays.sort(names);
+        List<String> keys = new ArrayList<>();
+        for (String n : names) {
+            if (n.endsWith(".json")) keys.add(normaliseCardKey(n));
+        }
+        return keys;
+    }
+
+    static String normaliseCardKey(String s) {
+        int slash = Math.max(s.lastIndexOf('/'), s.lastIndexOf('\\'));
+        int end = s.endsWith(".json") ? s.length() - 5 : s.length();
+        return s.substring(slash + 1, end);
+    }
+
+    private static List<Path> listArchiveFiles(List<Path> inputs) throws IOException {
+        List<Path> files = new ArrayList<>();
+        for (Path p : inputs) {
+            if (Files.isDirectory(p)) {
+                try (java.util.stream.Stream<Path> s = Files.list(p)) {
+                    s.filter(f -> f.toString().endsWith(".ndjson")).sorted().forEach(files::add);
+                }
+            } else if (Files.exists(p)) {
+                files.add(p);
+            }
+        }
+        return files;
+    }
+
+    private int indexOf(String card) {
+        if (card == null) return -1;
+        Integer i = cardIndex.get(normaliseCardKey(card));
+        return i == null ? -1 : i;
+    }
+
+    // ----------------------------
+    // Fork/join over byte segments
+    // ----------------------------
+
+    private final class SegmentTask extends RecursiveTask<CardBalanceStats> {
+
+        private static final long serialVersionUID = 1L;
+
+        private final Path file;
+        private final long start;
+        private final long end;
+
+        SegmentTask(Path file, long start, long end) {
+            this.file = file;
+            this.start = start;
+            this.end = end;
+        }
+
+        @Override
+        protected CardBalanceStats compute() {
+            if (end - start > segmentBytes) {
+                long mid = start + (end - start) / 2;
+                SegmentTask left = new SegmentTask(file, start, mid);
+                SegmentTask right = new SegmentTask(file, mid, end);
+                left.fork();
+                CardBalanceStats r = right.compute();
+                return left.join().merge(r);
+            }
+            CardBalanceStats stats = new CardBalanceStats(cardKeys.size());
+            try {
+                scan(stats);
+            } catch (IOException e) {
+                System.err.println("[CardBalanceJob] Failed reading " + file + " @" + start + ": " + e.getMessage());
+            }
+            return stats;
+        }
+
+        private void scan(CardBalanceStats stats) throws IOException {
+            GameScanner scanner = new GameScanner(stats);
+            ByteBuffer buf = ByteBuffer.allocate(READ_BUFFER);
+            byte[] line = new byte[8192];
+            int lineLen = 0;
+            long pos = start;
+            long lineStart = start;
+            // a segment that does not start at 0 skips the partial line owned by its predecessor
+            boolean skipping = start > 0 && !precededByNewline();
+
+            try (FileChannel ch = FileChannel.open(file, StandardOpenOption.READ)) {
+                ch.position(start);
+                while (true) {
+                    buf.clear();
+                    int n = ch.read(buf);
+                    if (n <= 0) break;
+                    byte[] a = buf.array();
+                    for (int i = 0; i < n; i++, pos++) {
+                        byte b = a[i];
+                        if (b == '\n') {
+                            if (!skipping && lineLen > 0) scanner.scanGame(line, lineLen);
+                            skipping = false;
+                            lineLen = 0;
+                            lineStart = pos + 1;
+                            if (lineStart >= end) return;
+                            continue;
+                        }
+                        if (skipping) continue;
+                        if (lineLen == line.length) line = Arrays.copyOf(line, line.length * 2);
+                        line[lineLen++] = b;
+                    }
+                }
+            }
+            // last line of the file without a trailing newline
+            if (!skipping && lineLen > 0 && lineStart < end) scanner.scanGame(line, lineLen);
+        }
+
+        private boolean precededByNewline() throws IOException {
+            try (FileChannel ch = FileChannel.open(file, StandardOpenOption.READ)) {
+                ByteBuffer one = ByteBuffer.allocate(1);
+                ch.read(one, start - 1);
+                return one.get(0) == '\n';
+            }
+        }
+    }
+
+    // ----------------------------
+    // Streaming per-game scan
+    // ----------------------------
+
+    private final class GameScanner {
+
+        private final CardBalanceStats stats;
+        private final UnitCardMap unitCards = new UnitCardMap();
+
+        // played[p][card] == gameSeq  <=> player p played the card in the current game
+        private final int[][] played;
+        private final int[][] touched;
+        private final int[] touchedCount = new int[3];
+        private int gameSeq = 0;
+
+        // counts of the current game, merged into stats only once the whole line has parsed
+        private final int[] counted;   // counted[card] == gameSeq <=> the card has counts below
+        private final int[] countedCards;
+        private int countedCount;
+        private final long[] plays;
+        private final long[] manaSpent;
+        private final long[] unitsSummoned;
+        private final long[] damage;
+
+        GameScanner(CardBalanceStats stats) {
+            this.stats = stats;
+            int n = cardKeys.size();
+            this.played = new int[][]{ new int[0], new int[n], new int[n] };
+            this.touched = new int[][]{ new int[0], new int[n], new int[n] };
+            this.counted = new int[n];
+            this.countedCards = new int[n];
+            this.plays = new long[n];
+            this.manaSpent = new long[n];
+            this.unitsSummoned = new long[n];
+            this.damage = new long[n];
+        }
+
+        void scanGame(byte[] line, int len) throws IOException {
+            gameSeq++;
+            unitCards.clear();
+            touchedCount[1] = 0;
+            touchedCount[2] = 0;
+            countedCount = 0;
+            int winner = 0;
+
+            try (JsonParser p = JSON.createParser(line, 0, len)) {
+                if (p.nextToken() != JsonToken.START_OBJECT) return;
+                while (p.nextToken() == JsonToken.FIELD_NAME) {
+                    String field = p.getCurrentName();
+                    JsonToken v = p.nextToken();
+                    if ("winner".equals(field)) {
+                        winner = p.getValueAsInt(0);
+                    } else if ("events".equals(field) && v == JsonToken.START_ARRAY) {
+                        while (p.nextToken() == JsonToken.START_OBJECT) scanEvent(p);
+                    } else {
+                        p.skipChildren();
+                    }
+                }
+            } catch (com.fasterxml.jackson.core.JsonProcessingException e) {
+                // a corrupt line is not counted as a finished game
+                return;
+            }
+
+            stats.games++;
+            for (int i = 0; i < countedCount; i++) {
+                int card = countedCards[i];
+                stats.plays[card] += plays[card];
+                stats.manaSpent[card] += manaSpent[card];
+                stats.unitsSummoned[card] += unitsSummoned[card];
+                stats.damage[card] += damage[card];
+            }
+            for (int player = 1; player <= 2; player++) {
+                for (int i = 0; i < touchedCount[player]; i++) {
+                    int card = touched[player][i];
+                    stats.playerGames[card]++;
+                    if (winner == player) stats.wins[card]++;
+                }
+            }
+        }
+
+        private void scanEvent(JsonParser p) throws IOException {
+            String type = null;
+            String card = null;
+            int player = 0, mana = 0, unit = 0, src = 0, amt = 0;
+
+            while (p.nextToken() == JsonToken.FIELD_NAME) {
+                String field = p.getCurrentName();
+                p.nextToken();
+                switch (field) {
+                    case "t":    type = p.getText(); break;
+                    case "card": card = p.getText(); break;
+                    case "p":    player = p.getValueAsInt(0); break;
+                    case "mana": mana = p.getValueAsInt(0); break;
+                    case "unit": unit = p.getValueAsInt(0); break;
+                    case "src":  src = p.getValueAsInt(0); break;
+                    case "amt":  amt = p.getValueAsInt(0); break;
+                    default:     p.skipChildren();
+                }
+            }
+            if (type == null) return;
+
+            if ("play".equals(type)) {
+                int c = indexOf(card);
+                if (c < 0) return;
+                markCounted(c);
+                plays[c]++;
+                manaSpent[c] += mana;
+                if (player == 1 || player == 2) markPlayed(player, c);
+                if (unit > 0) {
+                    unitCards.put(unit, c);
+                    unitsSummoned[c]++;
+                }
+            } else if ("dmg".equals(type)) {
+                int c = (card != null) ? indexOf(card) : unitCards.get(src);
+                if (c < 0) return;
+                markCounted(c);
+                damage[c] += amt;
+            }
+        }
+
+        private void markCounted(int card) {
+            if (counted[card] == gameSeq) return;
+            counted[card] = gameSeq;
+            countedCards[countedCount++] = card;
+            plays[card] = 0;
+            manaSpent[card] = 0;
+            unitsSummoned[card] = 0;
+            damage[card] = 0;
+        }
+
+        private void markPlayed(int player, int card) {
+            if (played[player][card] == gameSeq) return;
+            played[player][card] = gameSeq;
+            touched[player][touchedCount[player]++] = card;
+        }
+    }
+
+    /**
+     * Tiny open-addressing unit id -> card index map, reused across games.
+     * Unit ids are positive so 0 marks an empty slot.
+     */
+    private static final class UnitCardMap {
+
+        private int[] keys = new int[256];
+        private int[] vals = new int[256];
+        private int size;
+
+        void clear() {
+            if (size == 0) return;
+            Arrays.fill(keys, 0);
+            size = 0;
+        }
+
+        void put(int key, int val) {
+            if ((size + 1) * 2 > keys.length) grow();
+            int mask = keys.length - 1;
+            int i = mix(key) & mask;
+            while (keys[i] != 0 && keys[i] != key) i = (i + 1) & mask;
+            if (keys[i] == 0) size++;
+            keys[i] = key;
+            vals[i] = val;
+        }
+
+        int get(int key) {
+            if (key <= 0) return -1;
+            int mask = keys.length - 1;
+            int i = mix(key) & mask;
+            while (keys[i] != 0) {
+                if (keys[i] == key) return vals[i];
+                i = (i + 1) & mask;
+            }
+            return -1;
+        }
+
+        private void grow() {
+            int[] oldK = keys, oldV = vals;
+            keys = new int[oldK.length * 2];
+            vals = new int[oldV.length * 2];
+            size = 0;
+            for (int i = 0; i < oldK.length; i++) {
+                if (oldK[i] != 0) put(oldK[i], oldV[i]);
+            }
+        }
+
+        private static int mix(int k) {
+            return k * 0x9E3779B9;
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package analytics;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Per-card counters accumulated by {@link CardBalanceJob}.
+ *
+ * One instance is filled by each fork/join leaf and the results are merged
+ * pairwise on the way back up, so the counters are plain arrays indexed by the
+ * card index handed out by the job (no locking, no boxing).
+ */
+public class CardBalanceStats {
+
+    private final int cardCount;
+
+    long games;
+
+    final long[] plays;          // every play of the card
+    final long[] playerGames;    // (game, player) pairs where the card was played at least once
+    final long[] wins;           // ... of which that player won
+    final long[] unitsSummoned;  // units summoned from the card
+    final long[] damage;         // damage dealt by those units (or by the spell itself)
+    final long[] manaSpent;      // mana paid for the card
+
+    public CardBalanceStats(int cardCount) {
+        this.cardCount = cardCount;
+        this.plays = new long[cardCount];
+        this.playerGames = new long[cardCount];
+        this.wins = new long[cardCount];
+        this.unitsSummoned = new long[cardCount];
+        this.damage = new long[cardCount];
+        this.manaSpent = new long[cardCount];
+    }
+
+    public long getGames() {
+        return games;
+    }
+
+    public CardBalanceStats merge(CardBalanceStats other) {
+        if (other == null) return this;
+        games += other.games;
+        for (int i = 0; i < cardCount; i++) {
+            plays[i] += other.plays[i];
+            playerGames[i] += other.playerGames[i];
+            wins[i] += other.wins[i];
+            unitsSummoned[i] += other.unitsSummoned[i];
+            damage[i] += other.damage[i];
+            manaSpent[i] += other.manaSpent[i];
+        }
+        return this;
+    }
+
+    /**
+     * Writes one CSV row per card:
+     * - play_rate: share of (game, player) slots in which the card was played
+     * - win_rate_when_played: wins / (game, player) slots in which it was played
+     * - avg_unit_damage: damage dealt per unit summoned from the card
+     * - mana_efficiency: damage dealt per mana spent on the card
+     */
+    public void writeCsv(Writer w, List<String> cardKeys) throws IOException {
+        w.write("card,plays,play_rate,win_rate_when_played,avg_unit_damage,mana_efficiency\n");
+        long slots = games * 2;
+        for (int i = 0; i < cardCount; i++) {
+            w.write(cardKeys.get(i));
+            w.write(',');
+            w.write(Long.toString(plays[i]));
+            w.write(',');
+            w.write(ratio(playerGames[i], slots));
+            w.write(',');
+            w.write(ratio(wins[i], playerGames[i]));
+            w.write(',');
+            w.write(ratio(damage[i], unitsSummoned[i]));
+            w.write(',');
+            w.write(ratio(damage[i], manaSpent[i]));
+            w.write('\n');
+        }
+    }
+
+    private static String ratio(long num, long den) {
+        if (den <= 0) return "";
+        return String.format(Locale.ROOT, "%.4f", (double) num / den);
+    }
+}
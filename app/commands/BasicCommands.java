@@ -1,10 +1,17 @@
 package commands;
 
+import java.util.Set;
+
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 
 import akka.actor.ActorRef;
+import metrics.CommandMetrics;
+import metrics.jfr.CommandSentEvent;
 import play.libs.Json;
+import structures.BoardGrid;
+import structures.LegalActions;
 import structures.basic.Card;
 import structures.basic.EffectAnimation;
 import structures.basic.Player;
@@ -12,6 +19,7 @@ import structures.basic.Tile;
 import structures.basic.Unit;
 import structures.basic.UnitAnimation;
 import structures.basic.UnitAnimationType;
+import utils.BasicObjectBuilders;
 
 
 /**
@@ -29,6 +37,161 @@ public class BasicCommands {
 	// and need to have a null ActorRef. This should be null during normal operation.
 	public static DummyTell altTell = null;
 	
+	// The initial board is identical for every game, so its drawBoard message is built once per JVM.
+	// It is shared between games and must never be modified.
+	private static volatile ObjectNode initialBoard = null;
+	
+	// Number of commands delivered by the current thread; commands replaced in the coalescer are
+	// not counted. A GameActor handles an event on a single thread, so reading this before
+	// processEvent and after the final flush gives the commands emitted per event.
+	private static final ThreadLocal<long[]> sentOnThread = ThreadLocal.withInitial(() -> new long[1]);
+	
+	/**
+	 * Returns the running count of commands sent by the calling thread.
+	 * @return
+	 */
+	public static long commandsSentOnThisThread() {
+		return sentOnThread.get()[0];
+	}
+	
+	/**
+	 * Single exit point for every command. While the session's GameActor is handling an event,
+	 * commands that only set state are held back in the session's CommandCoalescer so a later
+	 * command for the same unit/stat can replace them; any other command first sends
+	 * everything held back. The rest is delivered straight away.
+	 * @param out
+	 * @param returnMessage
+	 */
+	private static void send(ActorRef out, ObjectNode returnMessage) {
+		ClientSession session = ClientSession.of(out);
+		
+		if (session!=null && ClientSession.current()==session) {
+			String key = CommandCoalescer.keyOf(returnMessage);
+			if (key!=null) {
+				ObjectNode replaced = session.getCoalescer().hold(key, returnMessage);
+				if (replaced!=null) CommandMetrics.recordCoalesced(session, replaced);
+				return;
+			}
+			flush(out, session);
+		}
+		deliver(out, session, returnMessage);
+	}
+	
+	/**
+	 * Sends the commands held back for coalescing. GameActor calls this when it has finished
+	 * handling an event.
+	 * @param out
+	 */
+	public static void flush(ActorRef out) {
+		ClientSession session = ClientSession.of(out);
+		if (session!=null) flush(out, session);
+	}
+	
+	private static void flush(ActorRef out, ClientSession session) {
+		CommandCoalescer coalescer = session.getCoalescer();
+		if (coalescer.isEmpty()) return;
+		for (ObjectNode message : coalescer.drain()) deliver(out, session, message);
+	}
+	
+	/**
+	 * Waits between commands so the front-end can play its animations. The commands held back
+	 * for coalescing are sent first, so the front-end shows them before the pause and not all
+	 * together at the end of the event.
+	 * @param out
+	 * @param millis
+	 */
+	public static void pause(ActorRef out, long millis) {
+		flush(out);
+		try {
+			Thread.sleep(millis);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+	
+	/**
+	 * Passes the message to the session's OutboundQueue if the front-end is flow controlled,
+	 * otherwise straight to transmit.
+	 */
+	private static void deliver(ActorRef out, ClientSession session, ObjectNode returnMessage) {
+		sentOnThread.get()[0]++;
+		if (session==null || !session.getOutbound().isFlowControlled()) {
+			transmit(out, session, returnMessage);
+			return;
+		}
+		
+		OutboundQueue queue = session.getOutbound();
+		if (queue.isOverflowed()) {
+			// connection is being closed, nothing more is sent
+			CommandMetrics.recordDropped(session, returnMessage);
+			return;
+		}
+		ObjectNode dropped = queue.offer(returnMessage);
+		if (dropped!=null) CommandMetrics.recordDropped(session, dropped);
+		if (queue.isOverflowed()) {
+			CommandMetrics.recordOverflow(session);
+			return;
+		}
+		pump(out, session);
+	}
+	
+	/**
+	 * Records that the front-end has received the given number of messages (cumulative) and
+	 * sends whatever the freed window allows.
+	 * @param out
+	 * @param received
+	 */
+	public static void acknowledge(ActorRef out, long received) {
+		ClientSession session = ClientSession.of(out);
+		if (session==null) return;
+		session.getOutbound().ack(received);
+		pump(out, session);
+	}
+	
+	// Locked on the queue: the GameActor's thread (new messages) and the websocket stream's thread
+	// (acks) both pump, and the messages must reach the websocket in queue order.
+	private static void pump(ActorRef out, ClientSession session) {
+		OutboundQueue queue = session.getOutbound();
+		synchronized (queue) {
+			ObjectNode next;
+			while ((next = queue.poll())!=null) transmit(out, session, next);
+		}
+	}
+	
+	/**
+	 * Hands the message to altTell (unit tests) or to the websocket actor.
+	 */
+	private static void transmit(ActorRef out, ClientSession session, ObjectNode returnMessage) {
+		CommandSentEvent jfr = new CommandSentEvent();
+		jfr.begin();
+
+		CommandMetrics.record(session, returnMessage);
+		if (altTell!=null) altTell.tell(returnMessage);
+		else out.tell(returnMessage, out);
+
+		jfr.end();
+		if (jfr.shouldCommit()) {
+			jfr.fill(1);
+			if (session!=null) jfr.gameId = session.getGameId();
+			jfr.command = returnMessage.get("messagetype").asText();
+			jfr.commit();
+		}
+	}
+	
+	
+	/**
+	 * Adds the unit a command refers to. If the front-end already holds the unit in its registry
+	 * (the unitDelta protocol feature) only the unit id is sent, otherwise the whole unit.
+	 * @param returnMessage
+	 * @param out
+	 * @param unit
+	 * @throws Exception
+	 */
+	private static void putUnit(ObjectNode returnMessage, ActorRef out, Unit unit) throws Exception {
+		ClientSession session = ClientSession.of(out);
+		if (session!=null && session.isUnitRegistered(unit.getId())) returnMessage.put("unitId", unit.getId());
+		else returnMessage.set("unit", mapper.readTree(mapper.writeValueAsString(unit)));
+	}
 	
 	/**
 	 * You can consider the contents of the user’s browser window a canvas that can be drawn upon. drawTile will draw 
@@ -46,13 +209,107 @@ public class BasicCommands {
 			returnMessage.put("messagetype", "drawTile");
 			returnMessage.put("tile", mapper.readTree(mapper.writeValueAsString(tile)));
 			returnMessage.put("mode", mode);
-			if (altTell!=null) altTell.tell(returnMessage);
-			else out.tell(returnMessage, out);
+			send(out, returnMessage);
 		} catch (Exception e) {
 			e.printStackTrace();
 		}
 	}
 	
+	/**
+	 * Draws every tile of a new width x height board in normal mode (tiles 1..width, 1..height).
+	 * Front-ends that asked for the drawBoard protocol feature get a single drawBoard message, 
+	 * others one drawTile per tile.
+	 * @param out
+	 * @param width
+	 * @param height
+	 */
+	public static void drawInitialBoard(ActorRef out, int width, int height) {
+		ClientSession session = ClientSession.of(out);
+		if (session==null || !session.hasFeature(ClientSession.DRAW_BOARD)) {
+			for (int x = 1; x <= width; x++) {
+				for (int y = 1; y <= height; y++) {
+					drawTile(out, BoardGrid.tile(x, y), 0);
+				}
+			}
+			return;
+		}
+		
+		ObjectNode message = initialBoard;
+		if (message==null || message.get("width").asInt()!=width || message.get("height").asInt()!=height) {
+			message = buildDrawBoard(width, height, new int[width*height]);
+			initialBoard = message;
+		}
+		send(out, message);
+	}
+	
+	/**
+	 * Draws a whole board in one message: the grid size, a template tile (the tile at 0,0, which
+	 * carries the shared texture list and the grid origin), the margin between tiles and the mode 
+	 * of every tile, row by row starting at (1,1). The front-end places tile (x,y) at 
+	 * template.xpos + x*(template.width+gridmargin), likewise for y, which is the layout used by 
+	 * BasicObjectBuilders.loadTile. Only for front-ends that asked for the drawBoard feature.
+	 * @param out
+	 * @param width
+	 * @param height
+	 * @param modes mode of tile (x,y) at index (y-1)*width + (x-1)
+	 */
+	public static void drawBoard(ActorRef out, int width, int height, int[] modes) {
+		send(out, buildDrawBoard(width, height, modes));
+	}
+	
+	private static ObjectNode buildDrawBoard(int width, int height, int[] modes) {
+		Tile template = BasicObjectBuilders.loadTile(0, 0);
+		Tile next = BasicObjectBuilders.loadTile(1, 0);
+		
+		ObjectNode returnMessage = Json.newObject();
+		returnMessage.put("messagetype", "drawBoard");
+		returnMessage.put("width", width);
+		returnMessage.put("height", height);
+		returnMessage.set("tile", mapper.valueToTree(template));
+		returnMessage.put("gridmargin", next.getXpos()-template.getXpos()-template.getWidth());
+		ArrayNode modeArray = returnMessage.putArray("modes");
+		for (int mode : modes) modeArray.add(mode);
+		return returnMessage;
+	}
+	
+	/**
+	 * Pushes the current player's legal actions, so the front-end can highlight a selection without 
+	 * a round-trip. Tiles are flat x,y pairs: per unit its position, move tiles and attack tiles; 
+	 * the hand slots of playable creature and spell cards, with the summon tiles and spell targets 
+	 * they share. Only sent to front-ends that asked for the legalActions feature, and only when 
+	 * it differs from what was sent last.
+	 * @param out
+	 * @param actions
+	 */
+	public static void setLegalActions(ActorRef out, LegalActions actions) {
+		ClientSession session = ClientSession.of(out);
+		if (session==null || !session.hasFeature(ClientSession.LEGAL_ACTIONS)) return;
+		
+		ObjectNode returnMessage = Json.newObject();
+		returnMessage.put("messagetype", "legalActions");
+		returnMessage.put("player", actions.getPlayerId());
+		returnMessage.put("turn", actions.getTurn());
+		ArrayNode units = returnMessage.putArray("units");
+		for (LegalActions.UnitActions unit : actions.getUnits()) {
+			ObjectNode u = units.addObject();
+			u.put("id", unit.getUnitId());
+			u.put("tilex", unit.getTilex());
+			u.put("tiley", unit.getTiley());
+			putInts(u.putArray("moves"), unit.getMoves());
+			putInts(u.putArray("attacks"), unit.getAttacks());
+		}
+		putInts(returnMessage.putArray("summonCards"), actions.getSummonCards());
+		putInts(returnMessage.putArray("spellCards"), actions.getSpellCards());
+		putInts(returnMessage.putArray("summonTiles"), actions.getSummonTiles());
+		putInts(returnMessage.putArray("spellTargets"), actions.getSpellTargets());
+		
+		if (session.updateLegalActions(returnMessage)) send(out, returnMessage);
+	}
+	
+	private static void putInts(ArrayNode array, int[] values) {
+		for (int v : values) array.add(v);
+	}
+	
 	/**
 	 * drawUnit will draw the sprite for a unit (a picture of that unit with its attack and health values) on the board. 
 	 * This command takes as input a target Tile (a ‘square’ of the main game grid) to place the unit’s sprite upon, 
@@ -67,9 +324,10 @@ public class BasicCommands {
 			ObjectNode returnMessage = Json.newObject();
 			returnMessage.put("messagetype", "drawUnit");
 			returnMessage.put("tile", mapper.readTree(mapper.writeValueAsString(tile)));
-			returnMessage.put("unit", mapper.readTree(mapper.writeValueAsString(unit)));
-			if (altTell!=null) altTell.tell(returnMessage);
-			else out.tell(returnMessage, out);
+			ClientSession session = ClientSession.of(out);
+			if (session==null || session.registerUnit(unit.getId())) returnMessage.put("unit", mapper.readTree(mapper.writeValueAsString(unit)));
+			else returnMessage.put("unitId", unit.getId());
+			send(out, returnMessage);
 		} catch (Exception e) {
 			e.printStackTrace();
 		}
@@ -87,10 +345,9 @@ public class BasicCommands {
 		try {
 			ObjectNode returnMessage = Json.newObject();
 			returnMessage.put("messagetype", "setUnitAttack");
-			returnMessage.put("unit", mapper.readTree(mapper.writeValueAsString(unit)));
+			putUnit(returnMessage, out, unit);
 			returnMessage.put("attack", attack);
-			if (altTell!=null) altTell.tell(returnMessage);
-			else out.tell(returnMessage, out);
+			send(out, returnMessage);
 		} catch (Exception e) {
 			e.printStackTrace();
 		}
@@ -108,10 +365,9 @@ public class BasicCommands {
 		try {
 			ObjectNode returnMessage = Json.newObject();
 			returnMessage.put("messagetype", "setUnitHealth");
-			returnMessage.put("unit", mapper.readTree(mapper.writeValueAsString(unit)));
+			putUnit(returnMessage, out, unit);
 			returnMessage.put("health", health);
-			if (altTell!=null) altTell.tell(returnMessage);
-			else out.tell(returnMessage, out);
+			send(out, returnMessage);
 		} catch (Exception e) {
 			e.printStackTrace();
 		}
@@ -129,10 +385,9 @@ public class BasicCommands {
 		try {
 			ObjectNode returnMessage = Json.newObject();
 			returnMessage.put("messagetype", "moveUnitToTile");
-			returnMessage.put("unit", mapper.readTree(mapper.writeValueAsString(unit)));
+			putUnit(returnMessage, out, unit);
 			returnMessage.put("tile", mapper.readTree(mapper.writeValueAsString(tile)));
-			if (altTell!=null) altTell.tell(returnMessage);
-			else out.tell(returnMessage, out);
+			send(out, returnMessage);
 		} catch (Exception e) {
 			e.printStackTrace();
 		}
@@ -153,10 +408,9 @@ public class BasicCommands {
 			ObjectNode returnMessage = Json.newObject();
 			returnMessage.put("messagetype", "moveUnitToTile");
 			returnMessage.put("yfirst", yfirst);
-			returnMessage.put("unit", mapper.readTree(mapper.writeValueAsString(unit)));
+			putUnit(returnMessage, out, unit);
 			returnMessage.put("tile", mapper.readTree(mapper.writeValueAsString(tile)));
-			if (altTell!=null) altTell.tell(returnMessage);
-			else out.tell(returnMessage, out);
+			send(out, returnMessage);
 		} catch (Exception e) {
 			e.printStackTrace();
 		}
@@ -181,10 +435,9 @@ public class BasicCommands {
 			
 			ObjectNode returnMessage = Json.newObject();
 			returnMessage.put("messagetype", "playUnitAnimation");
-			returnMessage.put("unit", mapper.readTree(mapper.writeValueAsString(unit)));
+			putUnit(returnMessage, out, unit);
 			returnMessage.put("animation", animationToPlay.toString());
-			if (altTell!=null) altTell.tell(returnMessage);
-			else out.tell(returnMessage, out);
+			send(out, returnMessage);
 			
 			// estimate the time needed for the animation to play
 			UnitAnimation animation = null;
@@ -216,9 +469,11 @@ public class BasicCommands {
 		try {
 			ObjectNode returnMessage = Json.newObject();
 			returnMessage.put("messagetype", "deleteUnit");
-			returnMessage.put("unit", mapper.readTree(mapper.writeValueAsString(unit)));
-			if (altTell!=null) altTell.tell(returnMessage);
-			else out.tell(returnMessage, out);
+			putUnit(returnMessage, out, unit);
+			send(out, returnMessage);
+			
+			ClientSession session = ClientSession.of(out);
+			if (session!=null) session.unregisterUnit(unit.getId());
 		} catch (Exception e) {
 			e.printStackTrace();
 		}
@@ -237,8 +492,7 @@ public class BasicCommands {
 			ObjectNode returnMessage = Json.newObject();
 			returnMessage.put("messagetype", "setPlayer1Health");
 			returnMessage.put("player", mapper.readTree(mapper.writeValueAsString(player)));
-			if (altTell!=null) altTell.tell(returnMessage);
-			else out.tell(returnMessage, out);
+			send(out, returnMessage);
 		} catch (Exception e) {
 			e.printStackTrace();
 		}
@@ -257,8 +511,7 @@ public class BasicCommands {
 			ObjectNode returnMessage = Json.newObject();
 			returnMessage.put("messagetype", "setPlayer2Health");
 			returnMessage.put("player", mapper.readTree(mapper.writeValueAsString(player)));
-			if (altTell!=null) altTell.tell(returnMessage);
-			else out.tell(returnMessage, out);
+			send(out, returnMessage);
 		} catch (Exception e) {
 			e.printStackTrace();
 		}
@@ -277,8 +530,7 @@ public class BasicCommands {
 			ObjectNode returnMessage = Json.newObject();
 			returnMessage.put("messagetype", "setPlayer1Mana");
 			returnMessage.put("player", mapper.readTree(mapper.writeValueAsString(player)));
-			if (altTell!=null) altTell.tell(returnMessage);
-			else out.tell(returnMessage, out);
+			send(out, returnMessage);
 		} catch (Exception e) {
 			e.printStackTrace();
 		}
@@ -297,8 +549,7 @@ public class BasicCommands {
 			ObjectNode returnMessage = Json.newObject();
 			returnMessage.put("messagetype", "setPlayer2Mana");
 			returnMessage.put("player", mapper.readTree(mapper.writeValueAsString(player)));
-			if (altTell!=null) altTell.tell(returnMessage);
-			else out.tell(returnMessage, out);
+			send(out, returnMessage);
 		} catch (Exception e) {
 			e.printStackTrace();
 		}
@@ -318,11 +569,17 @@ public class BasicCommands {
 		try {
 			ObjectNode returnMessage = Json.newObject();
 			returnMessage.put("messagetype", "drawCard");
-			returnMessage.put("card", mapper.readTree(mapper.writeValueAsString(card)));
+			ClientSession session = ClientSession.of(out);
+			if (session==null || session.registerCardType(card.getCardname())) {
+				returnMessage.put("card", mapper.readTree(mapper.writeValueAsString(card)));
+			} else {
+				// the front-end already has this card type, send a reference to it
+				returnMessage.put("cardType", card.getCardname());
+				returnMessage.put("cardId", card.getId());
+			}
 			returnMessage.put("position", position);
 			returnMessage.put("mode", mode);
-			if (altTell!=null) altTell.tell(returnMessage);
-			else out.tell(returnMessage, out);
+			send(out, returnMessage);
 		} catch (Exception e) {
 			e.printStackTrace();
 		}
@@ -338,8 +595,7 @@ public class BasicCommands {
 			ObjectNode returnMessage = Json.newObject();
 			returnMessage.put("messagetype", "deleteCard");
 			returnMessage.put("position", position);
-			if (altTell!=null) altTell.tell(returnMessage);
-			else out.tell(returnMessage, out);
+			send(out, returnMessage);
 		} catch (Exception e) {
 			e.printStackTrace();
 		}
@@ -361,8 +617,7 @@ public class BasicCommands {
 			returnMessage.put("messagetype", "playEffectAnimation");
 			returnMessage.put("effect", mapper.readTree(mapper.writeValueAsString(effect)));
 			returnMessage.put("tile", mapper.readTree(mapper.writeValueAsString(tile)));
-			if (altTell!=null) altTell.tell(returnMessage);
-			else out.tell(returnMessage, out);
+			send(out, returnMessage);
 			
 			return ((1000*effect.getAnimationTextures().size())/effect.getFps())+50;
 		} catch (Exception e) {
@@ -385,8 +640,7 @@ public class BasicCommands {
 			returnMessage.put("messagetype", "addPlayer1Notification");
 			returnMessage.put("text", text);
 			returnMessage.put("seconds", displayTimeSeconds);
-			if (altTell!=null) altTell.tell(returnMessage);
-			else out.tell(returnMessage, out);
+			send(out, returnMessage);
 		} catch (Exception e) {
 			e.printStackTrace();
 		}
@@ -407,11 +661,41 @@ public class BasicCommands {
 			returnMessage.put("tile", mapper.readTree(mapper.writeValueAsString(startTile)));
 			returnMessage.put("targetTile", mapper.readTree(mapper.writeValueAsString(targetTile)));
 			returnMessage.put("mode", mapper.readTree(mapper.writeValueAsString(mode)));
-			if (altTell!=null) altTell.tell(returnMessage);
-			else out.tell(returnMessage, out);
+			send(out, returnMessage);
 		} catch (Exception e) {
 			e.printStackTrace();
 		}
 	}
 	
+	/**
+	 * Tells the front-end that its GameActor is ready, with the images it should pre-load. Like
+	 * every other message it goes through the connection's OutboundQueue, so the front-end's ack
+	 * count matches the messages the queue has sent.
+	 * @param out
+	 * @param preloadImages
+	 */
+	@SuppressWarnings({"deprecation"})
+	public static void actorReady(ActorRef out, Set<String> preloadImages) {
+		try {
+			ObjectNode returnMessage = Json.newObject();
+			returnMessage.put("messagetype", "actorReady");
+			returnMessage.put("preloadImages", mapper.readTree(mapper.writeValueAsString(preloadImages)));
+			send(out, returnMessage);
+		} catch (Exception e) {
+			e.printStackTrace();
+		}
+	}
+	
+	/**
+	 * Reports an error to the front-end.
+	 * @param out
+	 * @param errorText
+	 */
+	public static void reportError(ActorRef out, String errorText) {
+		ObjectNode returnMessage = Json.newObject();
+		returnMessage.put("messagetype", "ERR");
+		returnMessage.put("error", errorText);
+		send(out, returnMessage);
+	}
+	
 }
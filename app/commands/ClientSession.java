@@ -0,0 +1,231 @@
+package commands;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import akka.actor.ActorRef;
+import metrics.CommandMetrics;
+
+/**
+ * Per-connection state that the command layer needs but that is not part of the game itself.
+ *
+ * BasicCommands only ever sees the ActorRef of the websocket, so sessions are looked up by
+ * that ref. A GameActor opens its session when the websocket is created and closes it when
+ * the actor stops. Commands sent without a session (e.g. unit tests using altTell) are still
+ * delivered, they just are not attributed to a game.
+ *
+ * The session also records the optional protocol features the front-end asked for when
+ * opening the websocket (e.g. /gamews?features=unitDelta). A front-end that asks for nothing
+ * gets the original full-object protocol.
+ */
+public class ClientSession {
+
+	/** Units are sent in full once by drawUnit, later unit commands carry only the unit id and changed fields. */
+	public static final String UNIT_DELTA = "unitDelta";
+	/** Each card type (by cardname) is sent in full by its first drawCard, later draws reference it by name. */
+	public static final String CARD_REGISTRY = "cardRegistry";
+	/** The initial board is sent as one drawBoard message instead of a drawTile per tile. */
+	public static final String DRAW_BOARD = "drawBoard";
+	/** The front-end acknowledges received messages; otherwise the websocket stream does (see OutboundQueue). */
+	public static final String ACK = "ack";
+	/**
+	 * The legal actions of the human player are pushed whenever they change (see BasicCommands.setLegalActions).
+	 * The bundled game screen does not ask for it: it highlights from the server's drawTile commands.
+	 */
+	public static final String LEGAL_ACTIONS = "legalActions";
+
+	private static final Map<ActorRef, ClientSession> sessions = new ConcurrentHashMap<>();
+	private static final AtomicLong nextGameId = new AtomicLong(1);
+
+	// session whose event is being handled on this thread (set by GameActor around processEvent)
+	private static final ThreadLocal<ClientSession> handling = new ThreadLocal<>();
+
+	private final long gameId;
+	private final CommandMetrics.GameCounters commandCounters = new CommandMetrics.GameCounters();
+	private final CommandCoalescer coalescer = new CommandCoalescer();
+	private final OutboundQueue outbound;
+	private volatile String currentEvent;
+
+	private final Set<String> features;
+	private final Set<Integer> registeredUnits = ConcurrentHashMap.newKeySet(); // unit ids the front-end holds in full
+	private final Set<String> registeredCardTypes = ConcurrentHashMap.newKeySet(); // card names the front-end holds in full
+	private volatile JsonNode legalActions; // last legalActions message sent
+
+	private ClientSession(long gameId, Set<String> features, boolean flowControlled) {
+		this.gameId = gameId;
+		this.features = features;
+		this.outbound = flowControlled
+				? new OutboundQueue(OutboundQueue.DEFAULT_WINDOW, OutboundQueue.DEFAULT_CRITICAL_CAPACITY, OutboundQueue.DEFAULT_COSMETIC_CAPACITY)
+				: OutboundQueue.unlimited();
+	}
+
+	public static ClientSession open(ActorRef out) {
+		return open(out, Collections.emptySet());
+	}
+
+	/**
+	 * Opens a session whose outbound messages are flow controlled only if the ACK feature was asked for.
+	 * @param out
+	 * @param features
+	 * @return
+	 */
+	public static ClientSession open(ActorRef out, Set<String> features) {
+		return open(out, features, features.contains(ACK));
+	}
+
+	/**
+	 * Opens the session of a websocket created by GameScreenController. Its outbound messages are
+	 * always flow controlled: by the front-end's acks if it asked for ACK, otherwise by the
+	 * websocket stream, which acknowledges every frame it takes for sending.
+	 * @param out
+	 * @param features
+	 * @return
+	 */
+	public static ClientSession openSocket(ActorRef out, Set<String> features) {
+		return open(out, features, true);
+	}
+
+	private static ClientSession open(ActorRef out, Set<String> features, boolean flowControlled) {
+		ClientSession session = new ClientSession(nextGameId.getAndIncrement(), Collections.unmodifiableSet(new HashSet<>(features)), flowControlled);
+		if (out != null) sessions.put(out, session);
+		return session;
+	}
+
+	/**
+	 * Parses the features query parameter of the websocket request (comma separated, may be repeated)
+	 * @param values the raw parameter values, may be null
+	 * @return the requested feature names
+	 */
+	public static Set<String> parseFeatures(String[] values) {
+		Set<String> features = new HashSet<>();
+		if (values == null) return features;
+		for (String value : values) {
+			for (String feature : value.split(",")) {
+				feature = feature.trim();
+				if (!feature.isEmpty()) features.add(feature);
+			}
+		}
+		return features;
+	}
+
+	public static void close(ActorRef out) {
+		if (out != null) sessions.remove(out);
+	}
+
+	/**
+	 * @param out
+	 * @return the session bound to this websocket, or null if there is none
+	 */
+	public static ClientSession of(ActorRef out) {
+		if (out == null) return null;
+		return sessions.get(out);
+	}
+
+	/**
+	 * @return the session whose event the calling thread is currently handling, or null
+	 */
+	public static ClientSession current() {
+		return handling.get();
+	}
+
+	public void enterEvent(String messageType) {
+		currentEvent = messageType;
+		handling.set(this);
+	}
+
+	public void exitEvent() {
+		currentEvent = null;
+		handling.remove();
+	}
+
+	public String getCurrentEvent() {
+		return currentEvent;
+	}
+
+	public static Collection<ClientSession> all() {
+		return Collections.unmodifiableCollection(sessions.values());
+	}
+
+	public long getGameId() {
+		return gameId;
+	}
+
+	public CommandMetrics.GameCounters getCommandCounters() {
+		return commandCounters;
+	}
+
+	public CommandCoalescer getCoalescer() {
+		return coalescer;
+	}
+
+	public OutboundQueue getOutbound() {
+		return outbound;
+	}
+
+	public boolean hasFeature(String feature) {
+		return features.contains(feature);
+	}
+
+	public Set<String> getFeatures() {
+		return features;
+	}
+
+	// ------------------------------------------------------------
+	// Unit registry (UNIT_DELTA)
+	// ------------------------------------------------------------
+
+	/**
+	 * Marks the unit as known to the front-end. Only has an effect if UNIT_DELTA was negotiated.
+	 * @param unitId
+	 * @return true if the unit was not registered before (so it must be sent in full)
+	 */
+	public boolean registerUnit(int unitId) {
+		if (!hasFeature(UNIT_DELTA)) return true;
+		return registeredUnits.add(unitId);
+	}
+
+	public boolean isUnitRegistered(int unitId) {
+		return registeredUnits.contains(unitId);
+	}
+
+	public void unregisterUnit(int unitId) {
+		registeredUnits.remove(unitId);
+	}
+
+	// ------------------------------------------------------------
+	// Card registry (CARD_REGISTRY)
+	// ------------------------------------------------------------
+
+	/**
+	 * Marks the card type as known to the front-end. Only has an effect if CARD_REGISTRY was negotiated.
+	 * Card types live for the whole session (there are only a few of them), so they are never unregistered.
+	 * @param cardname
+	 * @return true if the card type was not registered before (so it must be sent in full)
+	 */
+	public boolean registerCardType(String cardname) {
+		if (!hasFeature(CARD_REGISTRY) || cardname == null) return true;
+		return registeredCardTypes.add(cardname);
+	}
+
+	// ------------------------------------------------------------
+	// Legal actions (LEGAL_ACTIONS)
+	// ------------------------------------------------------------
+
+	/**
+	 * Records the legalActions message about to be sent.
+	 * @param message
+	 * @return true if it differs from the last one sent (so it must be sent)
+	 */
+	public boolean updateLegalActions(JsonNode message) {
+		if (message.equals(legalActions)) return false;
+		legalActions = message;
+		return true;
+	}
+}
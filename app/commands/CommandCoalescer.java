@@ -0,0 +1,92 @@
+package commands;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+/**
+ * Holds back the commands of one event that only set a piece of state on the front-end, so
+ * that a later command for the same thing can replace an earlier one before anything is sent.
+ * 
+ * Coalescable commands and their keys:
+ * <ul>
+ * <li>setUnitHealth / setUnitAttack - the unit id and the field</li>
+ * <li>setPlayer1Health, setPlayer2Mana, ... - the player stat</li>
+ * <li>addPlayer1Notification - the text, so only identical notifications fold</li>
+ * </ul>
+ * A replacing command takes the place of the one it supersedes. Commands with different keys
+ * are independent, so their relative order does not matter. Every other command (animations,
+ * unit moves, drawUnit, cards, ...) is a barrier: everything held back is sent before it, so
+ * the order the player can see is unchanged. BasicCommands.pause sends what is held back too,
+ * so only updates between two pacing pauses are folded and none arrives late.
+ * 
+ * drawTile is not coalesced: RenderedBoard already skips tiles whose mode does not change.
+ * 
+ * Not thread safe, a coalescer belongs to one ClientSession and is used by its GameActor.
+ */
+public class CommandCoalescer {
+
+	private final Map<String, ObjectNode> pending = new LinkedHashMap<>();
+	private int coalesced = 0;
+
+	/**
+	 * @param message
+	 * @return the coalescing key of the message, or null if it is a barrier
+	 */
+	public static String keyOf(ObjectNode message) {
+		String type = message.get("messagetype").asText();
+		switch (type) {
+		case "setUnitHealth":
+		case "setUnitAttack": {
+			JsonNode id = message.has("unitId") ? message.get("unitId") : message.get("unit").get("id");
+			return type+":"+id.asInt();
+		}
+		case "setPlayer1Health":
+		case "setPlayer2Health":
+		case "setPlayer1Mana":
+		case "setPlayer2Mana":
+			return type;
+		case "addPlayer1Notification":
+			return type+":"+message.get("text").asText();
+		default:
+			return null;
+		}
+	}
+
+	/**
+	 * Holds a coalescable message back. 
+	 * @param key its key (see keyOf)
+	 * @param message
+	 * @return the message it replaced, or null
+	 */
+	public ObjectNode hold(String key, ObjectNode message) {
+		ObjectNode replaced = pending.put(key, message);
+		if (replaced!=null) coalesced++;
+		return replaced;
+	}
+
+	/**
+	 * @return the held back messages in the order they were first held; the coalescer is empty afterwards
+	 */
+	public List<ObjectNode> drain() {
+		if (pending.isEmpty()) return java.util.Collections.emptyList();
+		List<ObjectNode> messages = new ArrayList<>(pending.values());
+		pending.clear();
+		return messages;
+	}
+
+	public boolean isEmpty() {
+		return pending.isEmpty();
+	}
+
+	/**
+	 * @return the number of messages that were replaced before being sent
+	 */
+	public int getCoalescedCount() {
+		return coalesced;
+	}
+}
@@ -0,0 +1,147 @@
+package commands;
+
+import java.util.ArrayDeque;
+
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+/**
+ * Bounded outbound queue of one connection, with two priority lanes.
+ * 
+ * Every message a websocket sends goes through its queue. Front-ends that negotiate the ack
+ * feature report how many messages they have received (cumulative, see the ack message in the
+ * game screen); for the others GameScreenController acknowledges each frame as the websocket
+ * stream takes it from its buffer, so they are throttled to the pace of the socket. Acks are
+ * handled on the stream's thread, so they free the window while the GameActor is still busy with
+ * an event. At most window messages are in flight; the rest wait here. Messages are split into
+ * lanes:
+ * <ul>
+ * <li>critical - everything that changes what the board/hand/players show. Never dropped; if
+ * this lane overflows the client is hopelessly behind and the connection is closed.</li>
+ * <li>cosmetic - idle animations, effect animations, projectiles and notifications. When the
+ * lane is full the oldest cosmetic message is dropped.</li>
+ * </ul>
+ * Every message gets a sequence number and the lanes are drained in sequence order, so
+ * cosmetic messages that survive are still delivered in their original place.
+ * 
+ * Sessions without a websocket (tests, benchmarks) are not flow controlled: the window is
+ * unlimited and messages pass straight through.
+ */
+public class OutboundQueue {
+
+	public static final int DEFAULT_WINDOW = Integer.getInteger("game.outbound.window", 256);
+	public static final int DEFAULT_CRITICAL_CAPACITY = Integer.getInteger("game.outbound.critical", 4096);
+	public static final int DEFAULT_COSMETIC_CAPACITY = Integer.getInteger("game.outbound.cosmetic", 256);
+
+	private static final class Entry {
+		final long seq;
+		final ObjectNode message;
+		Entry(long seq, ObjectNode message) {
+			this.seq = seq;
+			this.message = message;
+		}
+	}
+
+	private final int window;
+	private final int criticalCapacity;
+	private final int cosmeticCapacity;
+
+	private final ArrayDeque<Entry> critical = new ArrayDeque<>();
+	private final ArrayDeque<Entry> cosmetic = new ArrayDeque<>();
+	private long nextSeq = 0;
+
+	private long sent = 0;     // messages handed to the websocket
+	private long acked = 0;    // messages the client reported as received
+	private boolean overflowed = false;
+
+	/**
+	 * @param window maximum unacknowledged messages, Integer.MAX_VALUE for no flow control
+	 */
+	public OutboundQueue(int window, int criticalCapacity, int cosmeticCapacity) {
+		this.window = window;
+		this.criticalCapacity = criticalCapacity;
+		this.cosmeticCapacity = cosmeticCapacity;
+	}
+
+	public static OutboundQueue unlimited() {
+		return new OutboundQueue(Integer.MAX_VALUE, DEFAULT_CRITICAL_CAPACITY, DEFAULT_COSMETIC_CAPACITY);
+	}
+
+	/**
+	 * @param message
+	 * @return true if the message may be dropped when the client falls behind
+	 */
+	public static boolean isCosmetic(ObjectNode message) {
+		switch (message.get("messagetype").asText()) {
+		case "playEffectAnimation":
+		case "drawProjectile":
+		case "addPlayer1Notification":
+			return true;
+		case "playUnitAnimation":
+			return "idle".equals(message.get("animation").asText());
+		default:
+			return false;
+		}
+	}
+
+	/**
+	 * Queues a message.
+	 * @param message
+	 * @return the cosmetic message dropped to make room, or null
+	 */
+	public synchronized ObjectNode offer(ObjectNode message) {
+		if (overflowed) return null;
+
+		Entry entry = new Entry(nextSeq++, message);
+		if (isCosmetic(message)) {
+			cosmetic.addLast(entry);
+			if (cosmetic.size() > cosmeticCapacity) return cosmetic.pollFirst().message;
+		} else {
+			critical.addLast(entry);
+			if (critical.size() > criticalCapacity) {
+				overflowed = true;
+				critical.clear();
+				cosmetic.clear();
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * @return the next message that may be sent now (within the window), or null
+	 */
+	public synchronized ObjectNode poll() {
+		if (sent - acked >= window) return null;
+
+		Entry head;
+		if (critical.isEmpty()) head = cosmetic.pollFirst();
+		else if (cosmetic.isEmpty() || critical.peekFirst().seq < cosmetic.peekFirst().seq) head = critical.pollFirst();
+		else head = cosmetic.pollFirst();
+
+		if (head == null) return null;
+		sent++;
+		return head.message;
+	}
+
+	/**
+	 * @param received cumulative number of messages the client has received
+	 */
+	public synchronized void ack(long received) {
+		if (received > acked) acked = Math.min(received, sent);
+	}
+
+	public synchronized boolean isFlowControlled() {
+		return window != Integer.MAX_VALUE;
+	}
+
+	public synchronized boolean isOverflowed() {
+		return overflowed;
+	}
+
+	public synchronized int size() {
+		return critical.size() + cosmetic.size();
+	}
+
+	public synchronized long inFlight() {
+		return sent - acked;
+	}
+}
@@ -1,14 +1,31 @@
 package controllers;
 
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
 import javax.inject.Inject;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.typesafe.config.Config;
+
 import actors.GameActor;
 import akka.actor.ActorRef;
 import akka.actor.ActorSystem;
 import akka.actor.Props;
 import akka.stream.Materializer;
+import akka.stream.OverflowStrategy;
+import akka.stream.javadsl.Flow;
+import commands.BasicCommands;
+import commands.ClientSession;
+import events.EventType;
+import events.InboundEvent;
+import events.InboundEventDecoder;
+import metrics.CommandMetrics;
 import play.data.Form;
 import play.data.FormFactory;
+import play.libs.Json;
 import play.libs.streams.ActorFlow;
 import play.mvc.Controller;
 import play.mvc.Http;
@@ -23,26 +40,78 @@ import structures.User;
  */
 public class GameScreenController extends Controller {
 
+	private static final int SOCKET_BUFFER_SIZE = Integer.getInteger("game.outbound.buffer", 1024);
+
 	private final ActorSystem actorSystem;
 	private final Materializer materializer;
+	private final boolean countBytes;
 	Form<User> userForm = null;
 	
 	
 	@Inject
-	public GameScreenController(FormFactory formFactory, ActorSystem actorSystem, Materializer materializer) {
+	public GameScreenController(FormFactory formFactory, ActorSystem actorSystem, Materializer materializer, Config config) {
 		this.actorSystem = actorSystem;
 		this.materializer = materializer;
+		this.countBytes = config.hasPath("game.metrics.bytes") && config.getBoolean("game.metrics.bytes");
 		userForm = formFactory.form(User.class);
 	}
 
 	/**
-	 * This responds to the request for creation of the Websocket 
+	 * This responds to the request for creation of the Websocket. The front-end can opt in to
+	 * protocol features with a features query parameter, e.g. /gamews?features=unitDelta
+	 * 
+	 * Inbound frames are decoded straight into InboundEvents with a streaming parser, no JsonNode
+	 * tree is built for them.
+	 * 
+	 * Outbound messages are flow controlled by the connection's OutboundQueue. Acks from the
+	 * front-end are handled here rather than by the GameActor, so they free the window while the
+	 * actor is still busy with a long event (an end turn with the AI's turn). Front-ends without
+	 * the ack feature are acknowledged by this stream as it takes each frame for sending.
 	 * @return
 	 */
 	public WebSocket socket() {
 
-		return WebSocket.Json.accept(
-				request -> ActorFlow.actorRef(this::createGameActor, actorSystem, materializer));
+		return WebSocket.Text.accept(request -> {
+			Set<String> features = ClientSession.parseFeatures(request.queryString().get("features"));
+			boolean clientAcks = features.contains(ClientSession.ACK);
+			AtomicReference<ActorRef> out = new AtomicReference<>(); // the GameActor's websocket ref
+			AtomicLong framesSent = new AtomicLong();
+			return Flow.of(String.class)
+					.map(InboundEventDecoder::decode)
+					.filter(event -> {
+						if (event.getType()!=EventType.ACK) return true;
+						BasicCommands.acknowledge(out.get(), event.getReceived());
+						return false;
+					})
+					.via(gameFlow(out, features))
+					.map(message -> {
+						String frame = encode(out.get(), message);
+						if (!clientAcks) BasicCommands.acknowledge(out.get(), framesSent.incrementAndGet());
+						return frame;
+					});
+		});
+	}
+
+	/**
+	 * Encodes an outbound message as the frame sent to the front-end. With game.metrics.bytes the
+	 * frame's size is recorded for its command type.
+	 */
+	private String encode(ActorRef out, JsonNode message) {
+		String frame = Json.stringify(message);
+		if (countBytes) CommandMetrics.recordFrame(ClientSession.of(out), message, frame);
+		return frame;
+	}
+
+	private Flow<InboundEvent, JsonNode, ?> gameFlow(AtomicReference<ActorRef> out, Set<String> features) {
+		// Explicit buffer: if it ever fills the websocket fails (closes) instead of silently dropping
+		// messages. Every message passes the session's OutboundQueue, which never lets more than
+		// OutboundQueue.DEFAULT_WINDOW into it, so it does not fill up: a slow front-end is
+		// throttled by the queue, and only disconnected if the queue's critical lane overflows.
+		return ActorFlow.actorRef(ref -> {
+					out.set(ref);
+					return createGameActor(ref, features);
+				}, SOCKET_BUFFER_SIZE, OverflowStrategy.fail(),
+				actorSystem, materializer);
 	}
 
 	/**
@@ -55,6 +124,10 @@ public class GameScreenController extends Controller {
 	}
 	
 	public Props createGameActor(ActorRef out) {
-		return Props.create(GameActor.class, out); // calls the constructor for Game Actor
+		return createGameActor(out, Collections.emptySet());
+	}
+	
+	public Props createGameActor(ActorRef out, Set<String> features) {
+		return Props.create(GameActor.class, out, features); // calls the constructor for Game Actor
 	}
 }
\ No newline at end of file
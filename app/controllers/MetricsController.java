@@ -0,0 +1,44 @@
+package controllers;
+
+import javax.inject.Inject;
+
+import com.typesafe.config.Config;
+
+import commands.ClientSession;
+import metrics.CommandMetrics;
+import metrics.EventMetrics;
+import play.mvc.Controller;
+import play.mvc.Result;
+
+/**
+ * Exposes the in-process game metrics for Prometheus to scrape.
+ */
+public class MetricsController extends Controller {
+
+    private static final String PROMETHEUS_TEXT = "text/plain; version=0.0.4; charset=utf-8";
+
+    private final boolean bytesEnabled;
+    private final boolean payloadsEnabled;
+
+    @Inject
+    public MetricsController(Config config) {
+        this.bytesEnabled = config.hasPath("game.metrics.bytes") && config.getBoolean("game.metrics.bytes");
+        this.payloadsEnabled = config.hasPath("game.metrics.payloads") && config.getBoolean("game.metrics.payloads");
+    }
+
+    public Result metrics() {
+        StringBuilder sb = new StringBuilder(4096);
+        EventMetrics.writePrometheus(sb);
+        CommandMetrics.writePrometheus(sb, ClientSession.all(), bytesEnabled);
+        return ok(sb.toString()).as(PROMETHEUS_TEXT);
+    }
+
+    /**
+     * Debug view of the largest outbound payloads seen per command type. The payloads are live
+     * game data, so this answers 404 unless game.metrics.payloads is enabled.
+     */
+    public Result largestPayloads() {
+        if (!payloadsEnabled) return notFound();
+        return ok(CommandMetrics.dumpLargestPayloads());
+    }
+}
@@ -13,4 +13,13 @@ public class CardClicked implements EventProcessor {
 	public void processEvent(ActorRef out, GameState gameState, JsonNode message) {
 		gameRulesEngine.onCardClicked(out, gameState, message);
 	}
+
+	@Override
+	public void processEvent(ActorRef out, GameState gameState, InboundEvent event) {
+		if (event.hasTile()) {
+			gameRulesEngine.onTileClicked(out, gameState, event.getTilex(), event.getTiley());
+		} else if (event.hasPosition()) {
+			gameRulesEngine.onCardClicked(out, gameState, event.getPosition());
+		}
+	}
 }
\ No newline at end of file
@@ -13,4 +13,9 @@ public class EndTurnClicked implements EventProcessor {
 	public void processEvent(ActorRef out, GameState gameState, JsonNode message) {
 		turnService.onEndTurn(out, gameState, message);
 	}
+
+	@Override
+	public void processEvent(ActorRef out, GameState gameState, InboundEvent event) {
+		turnService.onEndTurn(out, gameState);
+	}
 }
\ No newline at end of file
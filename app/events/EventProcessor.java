@@ -24,4 +24,16 @@ public interface EventProcessor {
 	 */
 	public void processEvent(ActorRef out, GameState gameState, JsonNode message);
 	
+	/**
+	 * Typed variant used by the GameActor, with the event already decoded from the frame. 
+	 * Processors that read fields of the event should override it; the default rebuilds the
+	 * JsonNode and calls the method above.
+	 * @param out
+	 * @param gameState
+	 * @param event
+	 */
+	public default void processEvent(ActorRef out, GameState gameState, InboundEvent event) {
+		processEvent(out, gameState, event.toJson());
+	}
+	
 }
@@ -0,0 +1,53 @@
+package events;
+
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * The types of event the front-end sends to the GameActor, by their messagetype on the wire.
+ * 
+ * @see InboundEvent
+ */
+public enum EventType {
+
+	INITALIZE("initalize"),
+	HEARTBEAT("heartbeat"),
+	UNIT_MOVING("unitmoving"),
+	UNIT_STOPPED("unitstopped"),
+	TILE_CLICKED("tileclicked"),
+	CARD_CLICKED("cardclicked"),
+	END_TURN_CLICKED("endturnclicked"),
+	OTHER_CLICKED("otherclicked"),
+	ACK("ack"), // flow control, see commands.OutboundQueue
+	UNKNOWN("unknown");
+
+	private static final Map<String, EventType> byWireName = new HashMap<>();
+	static {
+		for (EventType type : values()) byWireName.put(type.wireName, type);
+	}
+
+	private final String wireName;
+
+	private EventType(String wireName) {
+		this.wireName = wireName;
+	}
+
+	/**
+	 * @return the messagetype in lower case, as used for metrics keys
+	 */
+	public String wireName() {
+		return wireName;
+	}
+
+	/**
+	 * @param messagetype as sent by the front-end, in any case
+	 * @return the event type, UNKNOWN if there is no such type
+	 */
+	public static EventType fromWireName(String messagetype) {
+		if (messagetype == null) return UNKNOWN;
+		EventType type = byWireName.get(messagetype);
+		if (type == null) type = byWireName.get(messagetype.toLowerCase(Locale.ROOT));
+		return (type != null) ? type : UNKNOWN;
+	}
+}
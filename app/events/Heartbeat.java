@@ -25,4 +25,9 @@ public class Heartbeat implements EventProcessor{
 		
 	}
 
+	@Override
+	public void processEvent(ActorRef out, GameState gameState, InboundEvent event) {
+		
+	}
+
 }
@@ -0,0 +1,71 @@
+package events;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import play.libs.Json;
+
+/**
+ * A decoded event from the front-end. Only the fields the game reads are kept; fields that
+ * were not in the message are NONE.
+ * 
+ * @see InboundEventDecoder
+ */
+public final class InboundEvent {
+
+	public static final int NONE = Integer.MIN_VALUE;
+
+	private final EventType type;
+	private final String messagetype; // as received, for logging unknown types
+	private final int tilex;
+	private final int tiley;
+	private final int position;
+	private final int id;
+	private final long received;
+
+	public InboundEvent(EventType type, String messagetype, int tilex, int tiley, int position, int id, long received) {
+		this.type = type;
+		this.messagetype = messagetype;
+		this.tilex = tilex;
+		this.tiley = tiley;
+		this.position = position;
+		this.id = id;
+		this.received = received;
+	}
+
+	public EventType getType() { return type; }
+	public String getMessagetype() { return messagetype; }
+
+	/** @return true if the event carries a tile (tilex and tiley) */
+	public boolean hasTile() { return tilex != NONE && tiley != NONE; }
+	public int getTilex() { return tilex; }
+	public int getTiley() { return tiley; }
+
+	public boolean hasPosition() { return position != NONE; }
+	public int getPosition() { return position; }
+
+	public int getId() { return id; }
+
+	/** @return for ACK events, the cumulative number of messages the front-end has received */
+	public long getReceived() { return received; }
+
+	/**
+	 * Rebuilds the message as JSON, for EventProcessors that only implement the JsonNode variant.
+	 * @return
+	 */
+	public JsonNode toJson() {
+		ObjectNode message = Json.newObject();
+		message.put("messagetype", messagetype);
+		if (tilex != NONE) message.put("tilex", tilex);
+		if (tiley != NONE) message.put("tiley", tiley);
+		if (position != NONE) message.put("position", position);
+		if (id != NONE) message.put("id", id);
+		if (type == EventType.ACK) message.put("received", received);
+		return message;
+	}
+
+	@Override
+	public String toString() {
+		return toJson().toString();
+	}
+}
@@ -0,0 +1,83 @@
+package events;
+
+import java.io.IOException;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+
+/**
+ * Decodes front-end events straight from the frame with a streaming parser, without building
+ * a JsonNode tree. Unused fields and nested values are skipped.
+ */
+public final class InboundEventDecoder {
+
+	private static final JsonFactory jsonFactory = new JsonFactory();
+
+	private InboundEventDecoder() {}
+
+	/**
+	 * Decodes a text (JSON) frame. A malformed frame decodes to an UNKNOWN event.
+	 * @param frame
+	 * @return
+	 */
+	public static InboundEvent decode(String frame) {
+		try (JsonParser parser = jsonFactory.createParser(frame)) {
+			return decode(parser);
+		} catch (IOException e) {
+			return malformed();
+		}
+	}
+
+	/**
+	 * Decodes an already parsed message (e.g. from tests that build JsonNode events).
+	 * @param message
+	 * @return
+	 */
+	public static InboundEvent decode(JsonNode message) {
+		try (JsonParser parser = message.traverse()) {
+			return decode(parser);
+		} catch (IOException e) {
+			return malformed();
+		}
+	}
+
+	/**
+	 * @param parser positioned before the event object
+	 * @return
+	 * @throws IOException
+	 */
+	public static InboundEvent decode(JsonParser parser) throws IOException {
+		if (parser.nextToken() != JsonToken.START_OBJECT) return malformed();
+
+		String messagetype = null;
+		int tilex = InboundEvent.NONE;
+		int tiley = InboundEvent.NONE;
+		int position = InboundEvent.NONE;
+		int id = InboundEvent.NONE;
+		long received = 0;
+
+		while (parser.nextToken() == JsonToken.FIELD_NAME) {
+			String field = parser.getCurrentName();
+			JsonToken value = parser.nextToken();
+			switch (field) {
+			case "messagetype": messagetype = parser.getValueAsString(); break;
+			case "tilex": tilex = parser.getValueAsInt(InboundEvent.NONE); break;
+			case "tiley": tiley = parser.getValueAsInt(InboundEvent.NONE); break;
+			case "position": position = parser.getValueAsInt(InboundEvent.NONE); break;
+			case "id": id = parser.getValueAsInt(InboundEvent.NONE); break;
+			case "received": received = parser.getValueAsLong(0); break;
+			default:
+				if (value == JsonToken.START_OBJECT || value == JsonToken.START_ARRAY) parser.skipChildren();
+			}
+		}
+
+		return new InboundEvent(EventType.fromWireName(messagetype), messagetype, tilex, tiley, position, id, received);
+	}
+
+	private static InboundEvent malformed() {
+		return new InboundEvent(EventType.UNKNOWN, null, InboundEvent.NONE, InboundEvent.NONE,
+				InboundEvent.NONE, InboundEvent.NONE, 0);
+	}
+}
@@ -12,4 +12,9 @@ public class Initalize implements EventProcessor {
 	public void processEvent(ActorRef out, GameState gameState, JsonNode message) {
 		new GameInitializationService().initializeGame(out, gameState);
 	}
+
+	@Override
+	public void processEvent(ActorRef out, GameState gameState, InboundEvent event) {
+		new GameInitializationService().initializeGame(out, gameState);
+	}
 }
\ No newline at end of file
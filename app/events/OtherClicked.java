@@ -13,4 +13,9 @@ public class OtherClicked implements EventProcessor {
 	public void processEvent(ActorRef out, GameState gameState, JsonNode message) {
 		gameRulesEngine.onOtherClicked(out, gameState, message);
 	}
+
+	@Override
+	public void processEvent(ActorRef out, GameState gameState, InboundEvent event) {
+		gameRulesEngine.onOtherClicked(out, gameState);
+	}
 }
\ No newline at end of file
@@ -13,4 +13,10 @@ public class TileClicked implements EventProcessor {
 	public void processEvent(ActorRef out, GameState gameState, JsonNode message) {
 		gameRulesEngine.onTileClicked(out, gameState, message);
 	}
+
+	@Override
+	public void processEvent(ActorRef out, GameState gameState, InboundEvent event) {
+		if (!event.hasTile()) return;
+		gameRulesEngine.onTileClicked(out, gameState, event.getTilex(), event.getTiley());
+	}
 }
\ No newline at end of file
@@ -26,4 +26,9 @@ public class UnitMoving implements EventProcessor{
 		
 	}
 
+	@Override
+	public void processEvent(ActorRef out, GameState gameState, InboundEvent event) {
+		
+	}
+
 }
@@ -22,4 +22,9 @@ public class UnitStopped implements EventProcessor{
 
 	}
 
+	@Override
+	public void processEvent(ActorRef out, GameState gameState, InboundEvent event) {
+
+	}
+
 }
\ No newline at end of file
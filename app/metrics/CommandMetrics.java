@@ -0,0 +1,298 @@
+package metrics;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import commands.ClientSession;
+
+/**
+ * Outbound command counters: messages and (when game.metrics.bytes is enabled) frame bytes per
+ * command type (drawUnit, setUnitHealth, ...), both process-wide and per game.
+ *
+ * Counters are LongAdders, so the many actor threads sending commands never contend on
+ * a single cache line. Bytes are those of the frame the websocket actually sends: the
+ * GameScreenController reports each encoded frame with recordFrame, so nothing is serialized
+ * twice. The largest frames per type are kept for the debug dump.
+ */
+public final class CommandMetrics {
+
+    private CommandMetrics() {}
+
+    /** Number of largest payloads kept per command type for the debug dump. */
+    private static final int LARGEST_KEPT = 5;
+    private static final int PREVIEW_CHARS = 2048;
+
+    private static final Map<String, TypeCounters> global = new ConcurrentHashMap<>();
+    private static final Map<String, LargestPayloads> largest = new ConcurrentHashMap<>();
+    private static final LongAdder overflows = new LongAdder();
+
+    public static final class TypeCounters {
+        final LongAdder messages = new LongAdder();
+        final LongAdder bytes = new LongAdder();
+        final LongAdder coalesced = new LongAdder();
+        final LongAdder dropped = new LongAdder();
+
+        public long getMessages() { return messages.sum(); }
+        public long getBytes() { return bytes.sum(); }
+        public long getCoalesced() { return coalesced.sum(); }
+        public long getDropped() { return dropped.sum(); }
+    }
+
+    /**
+     * Counters for a single game (one websocket connection).
+     */
+    public static final class GameCounters {
+        private final Map<String, TypeCounters> byType = new ConcurrentHashMap<>();
+
+        TypeCounters forType(String type) {
+            TypeCounters c = byType.get(type);
+            if (c == null) c = byType.computeIfAbsent(type, k -> new TypeCounters());
+            return c;
+        }
+
+        public Map<String, TypeCounters> view() {
+            return new TreeMap<>(byType);
+        }
+    }
+
+    public static final class Payload {
+        final long bytes;
+        final long gameId;
+        final long timestampMillis;
+        final String preview;
+
+        Payload(long bytes, long gameId, String preview) {
+            this.bytes = bytes;
+            this.gameId = gameId;
+            this.timestampMillis = System.currentTimeMillis();
+            this.preview = preview;
+        }
+    }
+
+    private static final class LargestPayloads {
+        private final List<Payload> top = new ArrayList<>(LARGEST_KEPT + 1);
+        private volatile long threshold = 0; // smallest kept size once the list is full
+
+        boolean qualifies(long bytes) {
+            return bytes > threshold;
+        }
+
+        synchronized void offer(Payload p) {
+            if (p.bytes <= threshold) return;
+            top.add(p);
+            top.sort((a, b) -> Long.compare(b.bytes, a.bytes));
+            if (top.size() > LARGEST_KEPT) top.remove(top.size() - 1);
+            if (top.size() == LARGEST_KEPT) threshold = top.get(top.size() - 1).bytes;
+        }
+
+        synchronized List<Payload> snapshot() {
+            return new ArrayList<>(top);
+        }
+    }
+
+    /**
+     * Records one outbound command. session may be null (no websocket, e.g. tests).
+     */
+    public static void record(ClientSession session, JsonNode message) {
+        String type = typeOf(message);
+
+        TypeCounters g = global.get(type);
+        if (g == null) g = global.computeIfAbsent(type, k -> new TypeCounters());
+        g.messages.increment();
+
+        if (session != null) session.getCommandCounters().forType(type).messages.increment();
+    }
+
+    /**
+     * Records the size of a frame about to be written to a websocket. Only called when
+     * game.metrics.bytes is enabled.
+     * @param session the connection's session, may be null (already closed)
+     * @param message the message the frame encodes
+     * @param frame the encoded JSON text
+     */
+    public static void recordFrame(ClientSession session, JsonNode message, String frame) {
+        String type = typeOf(message);
+        long bytes = utf8Length(frame);
+
+        TypeCounters g = global.get(type);
+        if (g == null) g = global.computeIfAbsent(type, k -> new TypeCounters());
+        g.bytes.add(bytes);
+
+        if (session != null) session.getCommandCounters().forType(type).bytes.add(bytes);
+
+        LargestPayloads l = largest.get(type);
+        if (l == null) l = largest.computeIfAbsent(type, k -> new LargestPayloads());
+        if (l.qualifies(bytes)) {
+            String preview = frame.length() > PREVIEW_CHARS ? frame.substring(0, PREVIEW_CHARS) + "..." : frame;
+            l.offer(new Payload(bytes, session != null ? session.getGameId() : 0, preview));
+        }
+    }
+
+    /**
+     * Records a command that was replaced by a later one before being sent (see CommandCoalescer).
+     */
+    public static void recordCoalesced(ClientSession session, JsonNode message) {
+        String type = typeOf(message);
+
+        TypeCounters g = global.get(type);
+        if (g == null) g = global.computeIfAbsent(type, k -> new TypeCounters());
+        g.coalesced.increment();
+
+        if (session != null) session.getCommandCounters().forType(type).coalesced.increment();
+    }
+
+    /**
+     * Records a command dropped by a connection's OutboundQueue (cosmetic lane full, or the
+     * connection is being closed after an overflow).
+     */
+    public static void recordDropped(ClientSession session, JsonNode message) {
+        String type = typeOf(message);
+
+        TypeCounters g = global.get(type);
+        if (g == null) g = global.computeIfAbsent(type, k -> new TypeCounters());
+        g.dropped.increment();
+
+        if (session != null) session.getCommandCounters().forType(type).dropped.increment();
+    }
+
+    /**
+     * Records a connection whose critical outbound lane overflowed (it is disconnected).
+     */
+    public static void recordOverflow(ClientSession session) {
+        overflows.increment();
+    }
+
+    public static TypeCounters get(String type) {
+        return global.get(type);
+    }
+
+    private static String typeOf(JsonNode message) {
+        JsonNode typeNode = message.get("messagetype");
+        return (typeNode != null) ? typeNode.asText() : "unknown";
+    }
+
+    // bytes of the string in UTF-8, without encoding it
+    static long utf8Length(String s) {
+        long bytes = 0;
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (c < 0x80) bytes++;
+            else if (c < 0x800) bytes += 2;
+            else if (Character.isHighSurrogate(c) && i + 1 < s.length() && Character.isLowSurrogate(s.charAt(i + 1))) {
+                bytes += 4;
+                i++;
+            } else bytes += 3;
+        }
+        return bytes;
+    }
+
+    // ----------------------------
+    // Export
+    // ----------------------------
+
+    /**
+     * @param countingBytes whether game.metrics.bytes is enabled; the byte counters are left out
+     * of the export otherwise, they would only be zeros
+     */
+    public static void writePrometheus(StringBuilder sb, Collection<ClientSession> sessions, boolean countingBytes) {
+        Map<String, TypeCounters> sorted = new TreeMap<>(global);
+
+        sb.append("# HELP game_commands_total Commands sent to front-ends per command type.\n");
+        sb.append("# TYPE game_commands_total counter\n");
+        for (Map.Entry<String, TypeCounters> e : sorted.entrySet()) {
+            sb.append("game_commands_total{type=\"").append(e.getKey()).append("\"} ")
+              .append(e.getValue().getMessages()).append('\n');
+        }
+
+        if (countingBytes) {
+            sb.append("# HELP game_command_bytes_total Websocket frame bytes sent per command type.\n");
+            sb.append("# TYPE game_command_bytes_total counter\n");
+            for (Map.Entry<String, TypeCounters> e : sorted.entrySet()) {
+                sb.append("game_command_bytes_total{type=\"").append(e.getKey()).append("\"} ")
+                  .append(e.getValue().getBytes()).append('\n');
+            }
+        }
+
+        sb.append("# HELP game_commands_coalesced_total Commands replaced by a later command for the same state before being sent.\n");
+        sb.append("# TYPE game_commands_coalesced_total counter\n");
+        for (Map.Entry<String, TypeCounters> e : sorted.entrySet()) {
+            if (e.getValue().getCoalesced() == 0) continue;
+            sb.append("game_commands_coalesced_total{type=\"").append(e.getKey()).append("\"} ")
+              .append(e.getValue().getCoalesced()).append('\n');
+        }
+
+        sb.append("# HELP game_commands_dropped_total Cosmetic commands dropped because the client fell behind.\n");
+        sb.append("# TYPE game_commands_dropped_total counter\n");
+        for (Map.Entry<String, TypeCounters> e : sorted.entrySet()) {
+            if (e.getValue().getDropped() == 0) continue;
+            sb.append("game_commands_dropped_total{type=\"").append(e.getKey()).append("\"} ")
+              .append(e.getValue().getDropped()).append('\n');
+        }
+
+        sb.append("# HELP game_outbound_overflows_total Connections closed because their critical outbound lane overflowed.\n");
+        sb.append("# TYPE game_outbound_overflows_total counter\n");
+        sb.append("game_outbound_overflows_total ").append(overflows.sum()).append('\n');
+
+        sb.append("# HELP game_session_outbound_queued Commands waiting in a flow controlled connection's outbound queue.\n");
+        sb.append("# TYPE game_session_outbound_queued gauge\n");
+        for (ClientSession s : sessions) {
+            if (!s.getOutbound().isFlowControlled()) continue;
+            sb.append("game_session_outbound_queued{game=\"").append(s.getGameId()).append("\"} ")
+              .append(s.getOutbound().size()).append('\n');
+        }
+
+        sb.append("# HELP game_session_outbound_inflight Commands sent but not yet acknowledged by the client.\n");
+        sb.append("# TYPE game_session_outbound_inflight gauge\n");
+        for (ClientSession s : sessions) {
+            if (!s.getOutbound().isFlowControlled()) continue;
+            sb.append("game_session_outbound_inflight{game=\"").append(s.getGameId()).append("\"} ")
+              .append(s.getOutbound().inFlight()).append('\n');
+        }
+
+        sb.append("# HELP game_session_commands_total Commands sent per live game and command type.\n");
+        sb.append("# TYPE game_session_commands_total counter\n");
+        for (ClientSession s : sessions) {
+            for (Map.Entry<String, TypeCounters> e : s.getCommandCounters().view().entrySet()) {
+                sb.append("game_session_commands_total{game=\"").append(s.getGameId())
+                  .append("\",type=\"").append(e.getKey()).append("\"} ")
+                  .append(e.getValue().getMessages()).append('\n');
+            }
+        }
+
+        if (countingBytes) {
+            sb.append("# HELP game_session_command_bytes_total Websocket frame bytes sent per live game and command type.\n");
+            sb.append("# TYPE game_session_command_bytes_total counter\n");
+            for (ClientSession s : sessions) {
+                for (Map.Entry<String, TypeCounters> e : s.getCommandCounters().view().entrySet()) {
+                    sb.append("game_session_command_bytes_total{game=\"").append(s.getGameId())
+                      .append("\",type=\"").append(e.getKey()).append("\"} ")
+                      .append(e.getValue().getBytes()).append('\n');
+                }
+            }
+        }
+    }
+
+    /**
+     * Human readable dump of the largest payloads seen per command type.
+     */
+    public static String dumpLargestPayloads() {
+        StringBuilder sb = new StringBuilder();
+        for (Map.Entry<String, LargestPayloads> e : new TreeMap<>(largest).entrySet()) {
+            sb.append("== ").append(e.getKey()).append(" ==\n");
+            for (Payload p : e.getValue().snapshot()) {
+                sb.append(p.bytes).append(" bytes, game ").append(p.gameId)
+                  .append(", at ").append(new java.util.Date(p.timestampMillis)).append('\n')
+                  .append(p.preview).append("\n\n");
+            }
+        }
+        if (sb.length() == 0) sb.append("no frames recorded (needs game.metrics.bytes)");
+        return sb.toString();
+    }
+}
@@ -0,0 +1,84 @@
+package metrics;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Process-wide metrics for inbound UI events, keyed by message type
+ * (tileclicked, cardclicked, endturnclicked, ...).
+ *
+ * GameActor records the time spent in EventProcessor.processEvent and the number of
+ * commands sent back to the front-end while handling the event.
+ */
+public final class EventMetrics {
+
+    private EventMetrics() {}
+
+    private static final Map<String, EventTypeMetrics> byType = new ConcurrentHashMap<>();
+
+    public static final class EventTypeMetrics {
+        final LatencyHistogram latency = new LatencyHistogram();
+        final LongAdder commands = new LongAdder();
+
+        public LatencyHistogram getLatency() { return latency; }
+        public long getCommands() { return commands.sum(); }
+    }
+
+    public static void record(String messageType, long nanos, long commandsEmitted) {
+        EventTypeMetrics m = byType.get(messageType);
+        if (m == null) m = byType.computeIfAbsent(messageType, k -> new EventTypeMetrics());
+        m.latency.record(nanos);
+        m.commands.add(commandsEmitted);
+    }
+
+    public static EventTypeMetrics get(String messageType) {
+        return byType.get(messageType);
+    }
+
+    /**
+     * Appends the event metrics in Prometheus text exposition format.
+     */
+    public static void writePrometheus(StringBuilder sb) {
+        Map<String, EventTypeMetrics> sorted = new TreeMap<>(byType);
+
+        sb.append("# HELP game_event_latency_seconds Time spent in processEvent per inbound message type.\n");
+        sb.append("# TYPE game_event_latency_seconds summary\n");
+        for (Map.Entry<String, EventTypeMetrics> e : sorted.entrySet()) {
+            String type = e.getKey();
+            LatencyHistogram h = e.getValue().latency;
+            quantile(sb, type, "0.5", h.valueAtQuantile(0.5));
+            quantile(sb, type, "0.99", h.valueAtQuantile(0.99));
+            quantile(sb, type, "0.999", h.valueAtQuantile(0.999));
+            sb.append("game_event_latency_seconds_sum{type=\"").append(type).append("\"} ")
+              .append(seconds(h.getSumNanos())).append('\n');
+            sb.append("game_event_latency_seconds_count{type=\"").append(type).append("\"} ")
+              .append(h.getCount()).append('\n');
+        }
+
+        sb.append("# HELP game_event_latency_max_seconds Slowest processEvent seen per message type.\n");
+        sb.append("# TYPE game_event_latency_max_seconds gauge\n");
+        for (Map.Entry<String, EventTypeMetrics> e : sorted.entrySet()) {
+            sb.append("game_event_latency_max_seconds{type=\"").append(e.getKey()).append("\"} ")
+              .append(seconds(e.getValue().latency.getMaxNanos())).append('\n');
+        }
+
+        sb.append("# HELP game_event_commands_total Commands sent to the front-end while handling the event.\n");
+        sb.append("# TYPE game_event_commands_total counter\n");
+        for (Map.Entry<String, EventTypeMetrics> e : sorted.entrySet()) {
+            sb.append("game_event_commands_total{type=\"").append(e.getKey()).append("\"} ")
+              .append(e.getValue().getCommands()).append('\n');
+        }
+    }
+
+    private static void quantile(StringBuilder sb, String type, String q, long nanos) {
+        sb.append("game_event_latency_seconds{type=\"").append(type)
+          .append("\",quantile=\"").append(q).append("\"} ")
+          .append(seconds(nanos)).append('\n');
+    }
+
+    static String seconds(long nanos) {
+        return Double.toString(nanos / 1e9);
+    }
+}
@@ -0,0 +1,16 @@
+package metrics.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * A whole AI turn (AIDecisionEngine.playTurn).
+ */
+@Name("itsd.AiTurn")
+@Label("AI Turn")
+@Category({"ITSD Card Game"})
+@Description("AIDecisionEngine.playTurn for one AI turn")
+public class AiTurnEvent extends GameJfrEvent {
+}
@@ -0,0 +1,19 @@
+package metrics.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * One command handed to the websocket by BasicCommands.
+ */
+@Name("itsd.CommandSent")
+@Label("Command Sent")
+@Category({"ITSD Card Game"})
+@Description("One UI command sent by BasicCommands")
+public class CommandSentEvent extends GameJfrEvent {
+
+    @Label("Command")
+    public String command;
+}
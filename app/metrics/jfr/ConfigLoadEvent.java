@@ -0,0 +1,22 @@
+package metrics.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * A configuration file load in BasicObjectBuilders (card, unit, effect or tile).
+ */
+@Name("itsd.ConfigLoad")
+@Label("Config Load")
+@Category({"ITSD Card Game"})
+@Description("BasicObjectBuilders loading a game configuration file")
+public class ConfigLoadEvent extends GameJfrEvent {
+
+    @Label("Kind")
+    public String kind;
+
+    @Label("Config File")
+    public String configFile;
+}
@@ -0,0 +1,16 @@
+package metrics.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * One inbound UI event handled by GameActor.processMessage.
+ */
+@Name("itsd.EventProcessed")
+@Label("Game Event Processed")
+@Category({"ITSD Card Game"})
+@Description("Handling of one inbound UI event by a GameActor")
+public class EventProcessedEvent extends GameJfrEvent {
+}
@@ -0,0 +1,41 @@
+package metrics.jfr;
+
+import commands.ClientSession;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+
+/**
+ * Common fields of the game's custom Flight Recorder events.
+ *
+ * Events are only filled and committed when shouldCommit() is true, so with no recording
+ * running the instrumentation costs a constructor call that the JIT removes. Use:
+ *
+ *   XxxEvent e = new XxxEvent();
+ *   e.begin();
+ *   ... work ...
+ *   e.end();
+ *   if (e.shouldCommit()) { e.fill(commands); ...; e.commit(); }
+ */
+public abstract class GameJfrEvent extends Event {
+
+    @Label("Game Id")
+    public long gameId;
+
+    @Label("Message Type")
+    public String messageType;
+
+    @Label("Commands Emitted")
+    public long commandsEmitted;
+
+    /**
+     * Fills the common fields from the session handling the current thread's event.
+     */
+    public void fill(long commands) {
+        ClientSession s = ClientSession.current();
+        if (s != null) {
+            gameId = s.getGameId();
+            messageType = s.getCurrentEvent();
+        }
+        commandsEmitted = commands;
+    }
+}
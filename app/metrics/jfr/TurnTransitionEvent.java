@@ -0,0 +1,22 @@
+package metrics.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * An end-turn request handled by TurnManager, including the AI turn it may trigger.
+ */
+@Name("itsd.TurnTransition")
+@Label("Turn Transition")
+@Category({"ITSD Card Game"})
+@Description("TurnManager.onEndTurn, from the player ending the turn to the next player")
+public class TurnTransitionEvent extends GameJfrEvent {
+
+    @Label("From Player")
+    public int fromPlayer;
+
+    @Label("To Player")
+    public int toPlayer;
+}
@@ -69,8 +69,9 @@ public class CardDrawService {
         if (!ok) return;
 
         if (playerId == 1 && !gameState.isHandHidden()) {
-            try { Thread.sleep(80); } catch (Exception ignored) {}
+            BasicCommands.pause(out, 80);
             BasicCommands.drawCard(out, ci.getVisual(), slot, 0);
+            gameState.getRenderedHand().set(slot, ci.getVisual().getId(), CommandDispatcher.CARD_NORMAL);
         }
     }
 }
\ No newline at end of file
@@ -41,15 +41,15 @@ public class CardPlayService {
 
         if (!p1.canAfford(ci.getManaCost())) {
             ui.notifyP1(out, "Not enough mana", 2);
-            ui.highlightHandCard(out, hand, handPos);
+            ui.highlightHandCard(out, gameState, handPos);
             gameState.setSelectedCardPos(null);
             return;
         }
 
         gameState.setSelectedCardPos(handPos);
-        ui.highlightHandCard(out, hand, handPos);
+        ui.highlightHandCard(out, gameState, handPos);
 
-        if (isCreatureCard(ci)) {
+        if (ci.isCreature()) {
             gameState.setWaitingSpellTarget(false);
             gameState.setSelectedSpellCardPos(null);
             gameState.getHighlightedSpellTargets().clear();
@@ -82,7 +82,7 @@ public class CardPlayService {
         if (spellCard == null) return false;
 
         // Safety: must be a spell (not creature)
-        if (isCreatureCard(spellCard)) return false;
+        if (spellCard.isCreature()) return false;
 
         int cost = spellCard.getManaCost();
         if (!p1.spendMana(cost)) {
@@ -123,11 +123,6 @@ public class CardPlayService {
         ui.redrawHandNormal(out, gameState);
     }
 
-    private boolean isCreatureCard(CardInstance card) {
-        if (card == null) return false;
-        String k = card.getCardKey();
-        return k != null && k.contains("_c_u_");
-    }
 
     private void compactHandLeft(Hand hand) {
         if (hand == null) return;
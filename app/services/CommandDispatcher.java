@@ -3,11 +3,10 @@ package services;
 import akka.actor.ActorRef;
 import commands.BasicCommands;
 import structures.GameState;
-import structures.Hand;
 import structures.CardInstance;
 import structures.basic.Tile;
 import structures.basic.Position;
-import utils.BasicObjectBuilders;
+import structures.BoardGrid;
 
 import java.util.List;
 
@@ -41,12 +40,12 @@ public class CommandDispatcher {
     }
 
     public void drawTileNormal(ActorRef out, int x, int y) {
-        Tile t = BasicObjectBuilders.loadTile(x, y);
+        Tile t = BoardGrid.tile(x, y);
         BasicCommands.drawTile(out, t, TILE_NORMAL);
     }
 
     public void drawTileMode(ActorRef out, int x, int y, int mode) {
-        Tile t = BasicObjectBuilders.loadTile(x, y);
+        Tile t = BoardGrid.tile(x, y);
         BasicCommands.drawTile(out, t, mode);
     }
 
@@ -68,6 +67,18 @@ public class CommandDispatcher {
         return new VisualFeedbackManager(this);
     }
 
+    public void beginTileBatch(GameState gameState) {
+        vfm().beginTileBatch(gameState);
+    }
+
+    public void endTileBatch(ActorRef out, GameState gameState) {
+        vfm().endTileBatch(out, gameState);
+    }
+
+    public void flushTileBatch(ActorRef out, GameState gameState) {
+        vfm().flushTileBatch(out, gameState);
+    }
+
     public void clearAllHighlights(ActorRef out, GameState gameState) {
         vfm().clearHighlights(out, gameState);
     }
@@ -88,8 +99,8 @@ public class CommandDispatcher {
         vfm().redrawHandNormal(out, gameState);
     }
 
-    public void highlightHandCard(ActorRef out, Hand hand, int selectedPos) {
-        vfm().highlightHandCard(out, hand, selectedPos);
+    public void highlightHandCard(ActorRef out, GameState gameState, int selectedPos) {
+        vfm().highlightHandCard(out, gameState, selectedPos);
     }
 
     public void highlightMoveTiles(ActorRef out, GameState gameState, List<Position> tiles) {
@@ -2,14 +2,17 @@ package services;
 
 import akka.actor.ActorRef;
 import commands.BasicCommands;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import structures.*;
 import structures.basic.Player;
 import structures.basic.Tile;
 import utils.BasicObjectBuilders;
 
 public class GameInitializationService {
-    private static final int BOARD_W = 9;
-    private static final int BOARD_H = 5;
+    private static final Logger log = LoggerFactory.getLogger(GameInitializationService.class);
+    private static final int BOARD_W = BoardGrid.WIDTH;
+    private static final int BOARD_H = BoardGrid.HEIGHT;
 
     public void initializeGame(ActorRef out, GameState gameState) {
 
@@ -17,13 +20,9 @@ public class GameInitializationService {
         Board board = new Board(BOARD_W, BOARD_H);
         gameState.setBoard(board);
 
-        // 2) Draw tiles
-        for (int x = 1; x <= BOARD_W; x++) {
-            for (int y = 1; y <= BOARD_H; y++) {
-                Tile tile = BasicObjectBuilders.loadTile(x, y);
-                BasicCommands.drawTile(out, tile, 0);
-            }
-        }
+        // 2) Draw tiles (one drawBoard message if the front-end supports it)
+        BasicCommands.drawInitialBoard(out, BOARD_W, BOARD_H);
+        gameState.getRenderedBoard().markAllShown(CommandDispatcher.TILE_NORMAL);
 
         // 3) Players
         Player p1 = new Player(20, 0);
@@ -32,8 +31,8 @@ public class GameInitializationService {
         gameState.setPlayer2(p2);
 
         // 4) Spawn tiles per rules: Human at (2,3), AI mirrored at (8,3)
-        Tile p1Spawn = BasicObjectBuilders.loadTile(2, 3);
-        Tile p2Spawn = BasicObjectBuilders.loadTile(8, 3);
+        Tile p1Spawn = BoardGrid.tile(2, 3);
+        Tile p2Spawn = BoardGrid.tile(8, 3);
 
         // 5) Load avatar unit visuals from config
         AvatarUnit p1Avatar = (AvatarUnit) BasicObjectBuilders.loadUnit(
@@ -71,11 +70,11 @@ public class GameInitializationService {
         board.putUnit(p2Avatar.getPosition(), p2Avatar);
 
         // 10) Draw units
-        try { Thread.sleep(100); } catch (Exception e) {}
+        BasicCommands.pause(out, 100);
         BasicCommands.drawUnit(out, p1Avatar, p1Spawn);
         BasicCommands.drawUnit(out, p2Avatar, p2Spawn);
 
-        try { Thread.sleep(100); } catch (Exception e) {}
+        BasicCommands.pause(out, 100);
         BasicCommands.setUnitHealth(out, p1Avatar, p1Avatar.getHealth());
         BasicCommands.setUnitAttack(out, p1Avatar, p1Avatar.getAttack());
         BasicCommands.setUnitHealth(out, p2Avatar, p2Avatar.getHealth());
@@ -103,8 +102,8 @@ public class GameInitializationService {
         gameState.getP2State().setHand(p2Hand);
 
         // Draw 3 cards each at game start
-        drawStartingHand(out, p1Deck, p1Hand, true);
-        drawStartingHand(out, p2Deck, p2Hand, false);
+        drawStartingHand(out, p1Deck, p1Hand, gameState.getRenderedHand());
+        drawStartingHand(out, p2Deck, p2Hand, null);
 
         // -----------------------------
         // 13) Start first turn: give Player 1 mana and update UI
@@ -114,15 +113,19 @@ public class GameInitializationService {
         BasicCommands.setPlayer1Mana(out, gameState.getPlayer1());
         BasicCommands.setPlayer2Mana(out, gameState.getPlayer2());
 
-        System.out.println("[Initalize] Board created: 9x5");
-        System.out.println("[Initalize] P1 avatar at (" + p1Avatar.getPosition().getTilex() + "," + p1Avatar.getPosition().getTiley() + ")");
-        System.out.println("[Initalize] P2 avatar at (" + p2Avatar.getPosition().getTilex() + "," + p2Avatar.getPosition().getTiley() + ")");
-        System.out.println("[Initalize] P1 deck size=" + p1Deck.size() + ", hand size=" + p1Hand.view().size());
-        System.out.println("[Initalize] P2 deck size=" + p2Deck.size() + ", hand size=" + p2Hand.view().size());
+        log.debug("Board created: {}x{}", BOARD_W, BOARD_H);
+        log.debug("P1 avatar at ({},{})", p1Avatar.getPosition().getTilex(), p1Avatar.getPosition().getTiley());
+        log.debug("P2 avatar at ({},{})", p2Avatar.getPosition().getTilex(), p2Avatar.getPosition().getTiley());
+        log.debug("P1 deck size={}, hand size={}", p1Deck.size(), p1Hand.view().size());
+        log.debug("P2 deck size={}, hand size={}", p2Deck.size(), p2Hand.view().size());
     }
 
-    private void drawStartingHand(ActorRef out, Deck deck, Hand hand, boolean showUI) {
+    /**
+     * @param rendered the rendered hand to draw into, or null to not show the cards
+     */
+    private void drawStartingHand(ActorRef out, Deck deck, Hand hand, RenderedHand rendered) {
         if (deck == null || hand == null) return;
+        boolean showUI = (rendered != null);
 
         // 0) Safety: clear ALL card slots to remove stale hitboxes
         // This prevents card UI click areas from overlapping the board.
@@ -130,7 +133,8 @@ public class GameInitializationService {
             for (int pos = 1; pos <= 6; pos++) {
                 BasicCommands.deleteCard(out, pos);
             }
-            try { Thread.sleep(150); } catch (Exception ignored) {}
+            rendered.clearAll();
+            BasicCommands.pause(out, 150);
         }
 
         // 2) Draw up to 3 cards into slots 1..3
@@ -143,8 +147,9 @@ public class GameInitializationService {
             hand.putIntoSlot(slot, ci);
 
             if (showUI) {
-                try { Thread.sleep(80); } catch (Exception ignored) {}
+                BasicCommands.pause(out, 80);
                 BasicCommands.drawCard(out, ci.getVisual(), slot, 0);
+                rendered.set(slot, ci.getVisual().getId(), CommandDispatcher.CARD_NORMAL);
             }
         }
     }
@@ -5,7 +5,6 @@ import com.fasterxml.jackson.databind.JsonNode;
 import structures.*;
 import structures.basic.Position;
 import structures.basic.Tile;
-import utils.BasicObjectBuilders;
 
 public class GameRulesEngine {
 
@@ -15,15 +14,28 @@ public class GameRulesEngine {
     private final SummonService summonService = new SummonService();
     private final CardPlayService cardPlayService = new CardPlayService();
 
+    // Each UI event handler renders its tile highlights as one batch: only tiles whose final
+    // mode differs from what the front-end shows are redrawn (see VisualFeedbackManager).
+
     public void onTileClicked(ActorRef out, GameState gameState, JsonNode message) {
-        if (gameState.isGameOver()) return;
+        onTileClicked(out, gameState, message.get("tilex").asInt(), message.get("tiley").asInt());
+    }
+
+    public void onTileClicked(ActorRef out, GameState gameState, int x, int y) {
         if (gameState == null || gameState.getBoard() == null) return;
+        if (gameState.isGameOver()) return;
 
-        int x = message.get("tilex").asInt();
-        int y = message.get("tiley").asInt();
+        ui.beginTileBatch(gameState);
+        try {
+            handleTileClicked(out, gameState, x, y);
+        } finally {
+            ui.endTileBatch(out, gameState);
+        }
+    }
 
+    private void handleTileClicked(ActorRef out, GameState gameState, int x, int y) {
         Position clickedPos = tilePos(x, y);
-        Tile clickedTile = BasicObjectBuilders.loadTile(x, y);
+        Tile clickedTile = BoardGrid.tile(x, y);
 
         UnitEntity unitAt = gameState.getBoard().getUnitAt(clickedPos).orElse(null);
 
@@ -33,6 +45,7 @@ public class GameRulesEngine {
 
             // If clicked a valid spell target: cast spell
             if (unitAt != null && gameState.getHighlightedSpellTargets().contains(key)) {
+                clearHighlightsBeforeAction(out, gameState);
                 cardPlayService.castSelectedSpellOnTarget(out, gameState, unitAt);
                 ui.showHumanHandUI(out, gameState);
                 return;
@@ -49,12 +62,12 @@ public class GameRulesEngine {
 
         // 0) Summon: selected card + summon tile
         if (gameState.getSelectedCardPos() != null && isSummonHighlighted(gameState, x, y)) {
+            clearHighlightsBeforeAction(out, gameState);
             if (unitAt != null) {
                 ui.notifyP1(out, "Tile occupied", 2);
             } else {
                 summonService.trySummonFromSelectedCard(out, gameState, clickedTile, clickedPos);
             }
-            ui.clearAllHighlights(out, gameState);
             gameState.setSelectedCardPos(null);
             ui.showHumanHandUI(out, gameState);
             return;
@@ -62,6 +75,7 @@ public class GameRulesEngine {
 
         // 1) Attack: click enemy on attack-highlight tile
         if (unitAt != null && isAttackHighlighted(gameState, x, y)) {
+            clearHighlightsBeforeAction(out, gameState);
             Integer selectedId = gameState.getSelectedUnitId();
             if (selectedId != null) {
                 UnitEntity attacker = gameState.getUnitById(selectedId);
@@ -69,7 +83,6 @@ public class GameRulesEngine {
                     combatResolver.tryAttack(out, gameState, attacker, unitAt);
                 }
             }
-            ui.clearAllHighlights(out, gameState);
             gameState.setSelectedUnitId(null);
             ui.showHumanHandUI(out, gameState);
             return;
@@ -77,8 +90,8 @@ public class GameRulesEngine {
 
         // 2) Move: click move-highlight tile
         if (isMoveHighlighted(gameState, x, y)) {
+            clearHighlightsBeforeAction(out, gameState);
             movementService.moveSelectedUnitTo(out, gameState, clickedPos, clickedTile);
-            ui.clearAllHighlights(out, gameState);
             gameState.setSelectedUnitId(null);
             ui.showHumanHandUI(out, gameState);
             return;
@@ -135,8 +148,7 @@ public class GameRulesEngine {
     }
 
     public void onCardClicked(ActorRef out, GameState gameState, JsonNode message) {
-        if (gameState.isGameOver()) return;
-        if (gameState == null || message == null) return;
+        if (message == null) return;
 
         if (message.has("tilex") && message.has("tiley")) {
             onTileClicked(out, gameState, message);
@@ -144,17 +156,36 @@ public class GameRulesEngine {
         }
 
         if (!message.has("position")) return;
-        int pos = message.get("position").asInt();
+        onCardClicked(out, gameState, message.get("position").asInt());
+    }
+
+    public void onCardClicked(ActorRef out, GameState gameState, int pos) {
+        if (gameState == null) return;
+        if (gameState.isGameOver()) return;
 
-        cardPlayService.onCardClicked(out, gameState, pos);
+        ui.beginTileBatch(gameState);
+        try {
+            cardPlayService.onCardClicked(out, gameState, pos);
+        } finally {
+            ui.endTileBatch(out, gameState);
+        }
     }
 
     public void onOtherClicked(ActorRef out, GameState gameState, JsonNode message) {
-        if (gameState.isGameOver()) return;
+        onOtherClicked(out, gameState);
+    }
+
+    public void onOtherClicked(ActorRef out, GameState gameState) {
         if (gameState == null) return;
+        if (gameState.isGameOver()) return;
 
-        ui.clearSpellTargeting(out, gameState);
-        ui.clearAllHighlights(out, gameState);
+        ui.beginTileBatch(gameState);
+        try {
+            ui.clearSpellTargeting(out, gameState);
+            ui.clearAllHighlights(out, gameState);
+        } finally {
+            ui.endTileBatch(out, gameState);
+        }
 
         gameState.setSelectedUnitId(null);
         gameState.setSelectedCardPos(null);
@@ -162,6 +193,13 @@ public class GameRulesEngine {
         ui.redrawHandNormal(out, gameState);
     }
 
+    // Clears the highlights on the front-end before an action animates; the rest of the event
+    // stays batched.
+    private void clearHighlightsBeforeAction(ActorRef out, GameState gameState) {
+        ui.clearAllHighlights(out, gameState);
+        ui.flushTileBatch(out, gameState);
+    }
+
     private boolean isMoveHighlighted(GameState s, int x, int y) {
         return s.getHighlightedMoveTiles().contains(x + "," + y);
     }
@@ -179,9 +217,6 @@ public class GameRulesEngine {
     }
 
     private Position tilePos(int tilex, int tiley) {
-        Position p = new Position();
-        p.setTilex(tilex);
-        p.setTiley(tiley);
-        return p;
+        return BoardGrid.position(tilex, tiley);
     }
 }
\ No newline at end of file
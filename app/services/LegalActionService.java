@@ -0,0 +1,138 @@
+package services;
+
+import structures.*;
+import structures.basic.Position;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The action rules in one place: which tiles a unit can move to, which enemies it can attack,
+ * where a creature can be summoned and what a spell can target.
+ *
+ * VisualFeedbackManager highlights from these, and compute() gathers them for every unit and
+ * hand card of the current player so the whole map can be pushed to the front-end (see
+ * BasicCommands.setLegalActions). Executing an action still goes through the services, which
+ * validate it again.
+ */
+public class LegalActionService {
+
+    private final MovementService movementService = new MovementService();
+
+    // ----------------------------
+    // Rules
+    // ----------------------------
+
+    /** Empty tiles the unit can walk (or fly) to, see MoveProfile. */
+    public List<Position> moveTiles(GameState gameState, UnitEntity unit) {
+        if (unit == null || unit.getPosition() == null) return new ArrayList<>();
+        return positions(gameState.getBoard().getMasks(), movementService.reachableTiles(gameState, unit));
+    }
+
+    /** Enemy units on the 8 tiles around the attacker. */
+    public List<Position> attackTargets(GameState gameState, UnitEntity attacker) {
+        if (attacker == null || attacker.getPosition() == null) return new ArrayList<>();
+
+        Board board = gameState.getBoard();
+        long around = board.getMasks().adjacent(board.indexOf(attacker.getPosition()));
+        long enemies = board.getOccupiedMask() & ~board.getOccupiedMask(attacker.getOwnerPlayerId());
+        return positions(board.getMasks(), around & enemies);
+    }
+
+    /** Empty tiles next to any of the player's units, each once. */
+    public List<Position> summonTiles(GameState gameState, int playerId) {
+        Board board = gameState.getBoard();
+        return positions(board.getMasks(), board.getAttackCoverage(playerId) & ~board.getOccupiedMask());
+    }
+
+    /** Spells target any enemy unit. */
+    public List<Position> spellTargets(GameState gameState, int playerId) {
+        List<UnitEntity> enemies = gameState.getUnitsOf(playerId == 1 ? 2 : 1);
+        List<Position> targets = new ArrayList<>(enemies.size());
+        for (int i = 0; i < enemies.size(); i++) {
+            UnitEntity u = enemies.get(i);
+            if (u.getPosition() == null) continue;
+            targets.add(u.getPosition());
+        }
+        return targets;
+    }
+
+    // ----------------------------
+    // Full map
+    // ----------------------------
+
+    /**
+     * @return the legal actions of the human player, or LegalActions.NONE when it is not their
+     * turn (or the game is over), since the front-end can only act for player 1
+     */
+    public LegalActions compute(GameState gameState) {
+        if (gameState == null || gameState.getBoard() == null || gameState.isGameOver()) return LegalActions.NONE;
+
+        int me = gameState.getCurrentPlayerId();
+        if (me != 1) return LegalActions.NONE;
+
+        int t = gameState.getGlobalTurnNumber();
+
+        List<LegalActions.UnitActions> units = new ArrayList<>();
+        List<UnitEntity> own = gameState.getUnitsOf(me);
+        for (int i = 0; i < own.size(); i++) {
+            UnitEntity u = own.get(i);
+            if (u.getPosition() == null) continue;
+
+            boolean canMove = u.canMove(t);
+            boolean canAttack = u.canAttack(t);
+            if (!canMove && !canAttack) continue;
+
+            int[] moves = canMove ? pairs(moveTiles(gameState, u)) : new int[0];
+            int[] attacks = canAttack ? pairs(attackTargets(gameState, u)) : new int[0];
+            units.add(new LegalActions.UnitActions(u.getId(), u.getPosition().getTilex(), u.getPosition().getTiley(), moves, attacks));
+        }
+
+        List<Integer> summonCards = new ArrayList<>();
+        List<Integer> spellCards = new ArrayList<>();
+
+        PlayerState p1 = gameState.getP1State();
+        if (p1 != null && p1.getHand() != null) {
+            for (int pos = Hand.MIN_SLOT; pos <= Hand.MAX_SLOT; pos++) {
+                CardInstance ci = p1.getHand().getBySlot(pos);
+                if (ci == null || !p1.canAfford(ci.getManaCost())) continue;
+                if (ci.isCreature()) summonCards.add(pos);
+                else spellCards.add(pos);
+            }
+        }
+
+        int[] summonTiles = summonCards.isEmpty() ? new int[0] : pairs(summonTiles(gameState, me));
+        int[] spellTargets = spellCards.isEmpty() ? new int[0] : pairs(spellTargets(gameState, me));
+
+        return new LegalActions(me, t, units, ints(summonCards), ints(spellCards), summonTiles, spellTargets);
+    }
+
+    // ----------------------------
+    // Helpers
+    // ----------------------------
+
+    /** The board positions of the set bits, in cell order. */
+    public static List<Position> positions(BoardMasks masks, long cells) {
+        List<Position> positions = new ArrayList<>(Long.bitCount(cells));
+        for (long m = cells; m != 0; m &= m - 1) {
+            int i = Long.numberOfTrailingZeros(m);
+            positions.add(BoardGrid.position(masks.tilex(i), masks.tiley(i)));
+        }
+        return positions;
+    }
+
+    private int[] pairs(List<Position> positions) {
+        int[] xy = new int[positions.size() * 2];
+        for (int i = 0; i < positions.size(); i++) {
+            xy[2 * i] = positions.get(i).getTilex();
+            xy[2 * i + 1] = positions.get(i).getTiley();
+        }
+        return xy;
+    }
+
+    private int[] ints(List<Integer> values) {
+        int[] a = new int[values.size()];
+        for (int i = 0; i < a.length; i++) a[i] = values.get(i);
+        return a;
+    }
+}
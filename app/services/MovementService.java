@@ -2,13 +2,14 @@ package services;
 
 import akka.actor.ActorRef;
 import commands.BasicCommands;
+import structures.Board;
 import structures.GameState;
+import structures.MoveProfile;
 import structures.UnitEntity;
 import structures.basic.Position;
 import structures.basic.Tile;
 import structures.basic.UnitAnimationType;
 
-import java.util.ArrayList;
 import java.util.List;
 
 /**
@@ -19,30 +20,21 @@ public class MovementService {
 
     private final CommandDispatcher ui = new CommandDispatcher();
 
+    /**
+     * The tiles the unit on the tile can move to, see Board.reachable. An empty tile moves with
+     * the default profile.
+     */
     public List<Position> computeDefaultMoves(GameState gameState, Position from) {
-        List<Position> positions = new ArrayList<>();
-        int x = from.getTilex();
-        int y = from.getTiley();
-
-        // Cardinal 1 tile
-        addIfValidEmpty(positions, gameState, tilePos(x + 1, y));
-        addIfValidEmpty(positions, gameState, tilePos(x - 1, y));
-        addIfValidEmpty(positions, gameState, tilePos(x, y + 1));
-        addIfValidEmpty(positions, gameState, tilePos(x, y - 1));
-
-        // Cardinal 2 tiles
-        addIfValidEmpty(positions, gameState, tilePos(x + 2, y));
-        addIfValidEmpty(positions, gameState, tilePos(x - 2, y));
-        addIfValidEmpty(positions, gameState, tilePos(x, y + 2));
-        addIfValidEmpty(positions, gameState, tilePos(x, y - 2));
-
-        // Diagonal 1 tile
-        addIfValidEmpty(positions, gameState, tilePos(x + 1, y + 1));
-        addIfValidEmpty(positions, gameState, tilePos(x + 1, y - 1));
-        addIfValidEmpty(positions, gameState, tilePos(x - 1, y + 1));
-        addIfValidEmpty(positions, gameState, tilePos(x - 1, y - 1));
-
-        return positions;
+        Board board = gameState.getBoard();
+        UnitEntity unit = board.getUnitAt(from).orElse(null);
+        MoveProfile profile = unit != null ? unit.getMoveProfile() : MoveProfile.DEFAULT;
+        return LegalActionService.positions(board.getMasks(), board.reachable(from, profile));
+    }
+
+    /** The tiles the unit can move to, as a mask (see BoardMasks), 0 if it is not on the board. */
+    public long reachableTiles(GameState gameState, UnitEntity unit) {
+        if (unit == null || unit.getPosition() == null) return 0L;
+        return gameState.getBoard().reachable(unit.getPosition(), unit.getMoveProfile());
     }
 
     /**
@@ -66,7 +58,7 @@ public class MovementService {
         }
 
         if (!gameState.getBoard().isValidPosition(targetPos)) return false;
-        if (gameState.getBoard().isOccupied(targetPos)) return false;
+        if ((reachableTiles(gameState, unit) & gameState.getBoard().bit(targetPos)) == 0) return false;
 
         Position from = unit.getPosition();
 
@@ -85,21 +77,4 @@ public class MovementService {
 
         return true;
     }
-
-    // ----------------------------
-    // Helpers
-    // ----------------------------
-
-    private void addIfValidEmpty(List<Position> out, GameState gameState, Position p) {
-        if (!gameState.getBoard().isValidPosition(p)) return;
-        if (gameState.getBoard().isOccupied(p)) return;
-        out.add(p);
-    }
-
-    private Position tilePos(int tilex, int tiley) {
-        Position p = new Position();
-        p.setTilex(tilex);
-        p.setTiley(tiley);
-        return p;
-    }
-}
\ No newline at end of file
+}
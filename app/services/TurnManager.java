@@ -5,6 +5,9 @@ import com.fasterxml.jackson.databind.JsonNode;
 import commands.BasicCommands;
 import structures.GameState;
 import ai.AIDecisionEngine;
+import metrics.jfr.TurnTransitionEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 /**
  * Turn flow orchestrator (TurnService removed).
@@ -12,14 +15,39 @@ import ai.AIDecisionEngine;
  */
 public class TurnManager {
 
+    private static final Logger log = LoggerFactory.getLogger(TurnManager.class);
+
     private final ManaService manaService = new ManaService();
     private final CardDrawService cardDrawService = new CardDrawService();
 
     public void onEndTurn(ActorRef out, GameState gameState, JsonNode message) {
+        onEndTurn(out, gameState);
+    }
+
+    public void onEndTurn(ActorRef out, GameState gameState) {
 
         if (gameState == null) return;
         if (gameState.isGameOver()) return;
 
+        TurnTransitionEvent jfr = new TurnTransitionEvent();
+        jfr.begin();
+        int from = gameState.getCurrentPlayerId();
+        long sentBefore = BasicCommands.commandsSentOnThisThread();
+        try {
+            endTurn(out, gameState);
+        } finally {
+            jfr.end();
+            if (jfr.shouldCommit()) {
+                jfr.fill(BasicCommands.commandsSentOnThisThread() - sentBefore);
+                jfr.fromPlayer = from;
+                jfr.toPlayer = gameState.getCurrentPlayerId();
+                jfr.commit();
+            }
+        }
+    }
+
+    private void endTurn(ActorRef out, GameState gameState) {
+
         // Clear UI interaction state
         GameRulesEngine.clearAllHighlightsUI(out, gameState);
         gameState.setSelectedUnitId(null);
@@ -69,8 +97,7 @@ public class TurnManager {
             BasicCommands.addPlayer1Notification(out, "Opponent's turn", 2);
         }
 
-        System.out.println("[EndTurn] " + current + " -> " + next
-                + " | P1mana=" + gameState.getPlayer1().getMana()
-                + " | P2mana=" + gameState.getPlayer2().getMana());
+        log.debug("End turn {} -> {} | P1mana={} | P2mana={}", current, next,
+                gameState.getPlayer1().getMana(), gameState.getPlayer2().getMana());
     }
 }
\ No newline at end of file
@@ -22,7 +22,10 @@ import java.util.Set;
  */
 public class VisualFeedbackManager {
 
+    private static final int NO_SELECTION = -1;
+
     private final CommandDispatcher ui;
+    private final LegalActionService rules = new LegalActionService();
 
     public VisualFeedbackManager(CommandDispatcher dispatcher) {
         this.ui = (dispatcher != null) ? dispatcher : new CommandDispatcher();
@@ -37,9 +40,7 @@ public class VisualFeedbackManager {
         if (gameState.getCurrentPlayerId() != 1) return;
         if (gameState.isHandHidden()) return;
 
-        for (int pos = Hand.MIN_SLOT; pos <= Hand.MAX_SLOT; pos++) {
-            ui.deleteCardSlot(out, pos);
-        }
+        renderHand(out, gameState, null, NO_SELECTION);
         gameState.setHandHidden(true);
     }
 
@@ -53,16 +54,7 @@ public class VisualFeedbackManager {
             return;
         }
 
-        for (int pos = Hand.MIN_SLOT; pos <= Hand.MAX_SLOT; pos++) {
-            ui.deleteCardSlot(out, pos);
-        }
-
-        Hand hand = p1.getHand();
-        for (int pos = Hand.MIN_SLOT; pos <= Hand.MAX_SLOT; pos++) {
-            CardInstance ci = hand.getBySlot(pos);
-            if (ci != null) ui.drawHandCard(out, ci, pos, CommandDispatcher.CARD_NORMAL);
-        }
-
+        renderHand(out, gameState, p1.getHand(), NO_SELECTION);
         gameState.setHandHidden(false);
     }
 
@@ -73,33 +65,101 @@ public class VisualFeedbackManager {
         PlayerState p1 = gameState.getP1State();
         if (p1 == null || p1.getHand() == null) return;
 
-        for (int pos = Hand.MIN_SLOT; pos <= Hand.MAX_SLOT; pos++) {
-            ui.deleteCardSlot(out, pos);
-        }
+        renderHand(out, gameState, p1.getHand(), NO_SELECTION);
+    }
 
-        Hand hand = p1.getHand();
-        for (int pos = Hand.MIN_SLOT; pos <= Hand.MAX_SLOT; pos++) {
-            CardInstance ci = hand.getBySlot(pos);
-            if (ci != null) ui.drawHandCard(out, ci, pos, CommandDispatcher.CARD_NORMAL);
-        }
+    public void highlightHandCard(ActorRef out, GameState gameState, int selectedPos) {
+        if (out == null || gameState == null) return;
+
+        PlayerState p1 = gameState.getP1State();
+        if (p1 == null || p1.getHand() == null) return;
+
+        renderHand(out, gameState, p1.getHand(), selectedPos);
     }
 
-    public void highlightHandCard(ActorRef out, Hand hand, int selectedPos) {
-        if (out == null || hand == null) return;
+    /**
+     * Brings the front-end hand in line with the given hand (null = no cards), sending commands
+     * only for slots whose card or mode differs from what was last rendered. drawCard replaces
+     * whatever the slot showed, so a slot is only deleted when it becomes empty.
+     */
+    private void renderHand(ActorRef out, GameState gameState, Hand hand, int selectedPos) {
+        RenderedHand rendered = gameState.getRenderedHand();
 
         for (int pos = Hand.MIN_SLOT; pos <= Hand.MAX_SLOT; pos++) {
-            ui.deleteCardSlot(out, pos);
-        }
+            CardInstance ci = (hand != null) ? hand.getBySlot(pos) : null;
 
-        for (int pos = Hand.MIN_SLOT; pos <= Hand.MAX_SLOT; pos++) {
-            CardInstance ci = hand.getBySlot(pos);
-            if (ci == null) continue;
+            if (ci == null || ci.getVisual() == null) {
+                if (!rendered.isEmpty(pos)) {
+                    ui.deleteCardSlot(out, pos);
+                    rendered.clear(pos);
+                }
+                continue;
+            }
 
             int mode = (pos == selectedPos) ? CommandDispatcher.CARD_SELECTED : CommandDispatcher.CARD_NORMAL;
+            int cardId = ci.getVisual().getId();
+            if (rendered.shows(pos, cardId, mode)) continue;
+
             ui.drawHandCard(out, ci, pos, mode);
+            rendered.set(pos, cardId, mode);
         }
     }
 
+    // ----------------------------
+    // Tile rendering
+    // ----------------------------
+
+    /**
+     * Starts deferring tile draws until the matching endTileBatch (batches nest). Within a batch
+     * only the final mode of each tile is drawn, and only if it differs from what is shown.
+     */
+    public void beginTileBatch(GameState gameState) {
+        if (gameState == null || gameState.getRenderedBoard() == null) return;
+        gameState.getRenderedBoard().beginBatch();
+    }
+
+    public void endTileBatch(ActorRef out, GameState gameState) {
+        if (gameState == null || gameState.getRenderedBoard() == null) return;
+
+        if (!gameState.getRenderedBoard().endBatch()) return;
+        flushTileBatch(out, gameState);
+    }
+
+    /**
+     * Draws the tile changes requested so far in the current batch without ending it. Handlers
+     * call this before an action animates, so cleared highlights do not stay on screen through
+     * the animation; tiles changed later in the event are still drawn once at endTileBatch.
+     */
+    public void flushTileBatch(ActorRef out, GameState gameState) {
+        if (gameState == null || gameState.getRenderedBoard() == null) return;
+
+        RenderedBoard board = gameState.getRenderedBoard();
+        for (int x = 1; x <= board.getWidth(); x++) {
+            for (int y = 1; y <= board.getHeight(); y++) {
+                flushTile(out, board, x, y);
+            }
+        }
+    }
+
+    private void setTileMode(ActorRef out, GameState gameState, int x, int y, int mode) {
+        RenderedBoard board = gameState.getRenderedBoard();
+        if (board == null || !board.contains(x, y)) {
+            ui.drawTileMode(out, x, y, mode);
+            return;
+        }
+
+        board.setTarget(x, y, mode);
+        if (!board.isBatching()) flushTile(out, board, x, y);
+    }
+
+    private void flushTile(ActorRef out, RenderedBoard board, int x, int y) {
+        int mode = board.targetMode(x, y);
+        if (mode == board.shownMode(x, y)) return;
+
+        ui.drawTileMode(out, x, y, mode);
+        board.markShown(x, y, mode);
+    }
+
     // ----------------------------
     // Highlight clearing
     // ----------------------------
@@ -117,7 +177,7 @@ public class VisualFeedbackManager {
             String[] p = key.split(",");
             int x = Integer.parseInt(p[0]);
             int y = Integer.parseInt(p[1]);
-            ui.drawTileNormal(out, x, y);
+            setTileMode(out, gameState, x, y, CommandDispatcher.TILE_NORMAL);
         }
 
         gameState.clearAllHighlights();
@@ -129,7 +189,7 @@ public class VisualFeedbackManager {
 
         for (String key : new HashSet<>(gameState.getHighlightedSummonTiles())) {
             String[] p = key.split(",");
-            ui.drawTileNormal(out, Integer.parseInt(p[0]), Integer.parseInt(p[1]));
+            setTileMode(out, gameState, Integer.parseInt(p[0]), Integer.parseInt(p[1]), CommandDispatcher.TILE_NORMAL);
         }
         gameState.getHighlightedSummonTiles().clear();
     }
@@ -139,7 +199,7 @@ public class VisualFeedbackManager {
 
         for (String key : new HashSet<>(gameState.getHighlightedSpellTargets())) {
             String[] p = key.split(",");
-            ui.drawTileNormal(out, Integer.parseInt(p[0]), Integer.parseInt(p[1]));
+            setTileMode(out, gameState, Integer.parseInt(p[0]), Integer.parseInt(p[1]), CommandDispatcher.TILE_NORMAL);
         }
         gameState.getHighlightedSpellTargets().clear();
     }
@@ -162,7 +222,7 @@ public class VisualFeedbackManager {
         for (Position pos : tiles) {
             int x = pos.getTilex();
             int y = pos.getTiley();
-            ui.drawTileMode(out, x, y, CommandDispatcher.TILE_MOVE_HIGHLIGHT);
+            setTileMode(out, gameState, x, y, CommandDispatcher.TILE_MOVE_HIGHLIGHT);
             gameState.getHighlightedMoveTiles().add(x + "," + y);
         }
     }
@@ -171,35 +231,18 @@ public class VisualFeedbackManager {
         if (out == null || gameState == null || center == null) return;
         int x = center.getTilex();
         int y = center.getTiley();
-        ui.drawTileMode(out, x, y, CommandDispatcher.TILE_MOVE_HIGHLIGHT);
+        setTileMode(out, gameState, x, y, CommandDispatcher.TILE_MOVE_HIGHLIGHT);
         gameState.getHighlightedMoveTiles().add(x + "," + y);
     }
 
     public void highlightAttackTargets(ActorRef out, GameState gameState, UnitEntity attacker) {
         if (out == null || gameState == null || attacker == null || attacker.getPosition() == null) return;
 
-        int ax = attacker.getPosition().getTilex();
-        int ay = attacker.getPosition().getTiley();
-
-        for (int dx = -1; dx <= 1; dx++) {
-            for (int dy = -1; dy <= 1; dy++) {
-                if (dx == 0 && dy == 0) continue;
-
-                Position p = new Position();
-                p.setTilex(ax + dx);
-                p.setTiley(ay + dy);
-
-                if (!gameState.getBoard().isValidPosition(p)) continue;
-
-                UnitEntity maybe = gameState.getBoard().getUnitAt(p).orElse(null);
-                if (maybe == null) continue;
-                if (maybe.getOwnerPlayerId() == attacker.getOwnerPlayerId()) continue;
-
-                int x = p.getTilex();
-                int y = p.getTiley();
-                ui.drawTileMode(out, x, y, CommandDispatcher.TILE_ATTACK_HIGHLIGHT);
-                gameState.getHighlightedAttackTiles().add(x + "," + y);
-            }
+        for (Position p : rules.attackTargets(gameState, attacker)) {
+            int x = p.getTilex();
+            int y = p.getTiley();
+            setTileMode(out, gameState, x, y, CommandDispatcher.TILE_ATTACK_HIGHLIGHT);
+            gameState.getHighlightedAttackTiles().add(x + "," + y);
         }
     }
 
@@ -208,32 +251,9 @@ public class VisualFeedbackManager {
 
         gameState.getHighlightedSummonTiles().clear();
 
-        Set<String> seen = new HashSet<>();
-        for (UnitEntity u : gameState.getUnitsById().values()) {
-            if (u == null || u.getPosition() == null) continue;
-            if (u.getOwnerPlayerId() != 1) continue;
-
-            int ux = u.getPosition().getTilex();
-            int uy = u.getPosition().getTiley();
-
-            for (int dx = -1; dx <= 1; dx++) {
-                for (int dy = -1; dy <= 1; dy++) {
-                    if (dx == 0 && dy == 0) continue;
-
-                    Position p = new Position();
-                    p.setTilex(ux + dx);
-                    p.setTiley(uy + dy);
-
-                    if (!gameState.getBoard().isValidPosition(p)) continue;
-                    if (gameState.getBoard().isOccupied(p)) continue;
-
-                    String key = p.getTilex() + "," + p.getTiley();
-                    if (!seen.add(key)) continue;
-
-                    ui.drawTileMode(out, p.getTilex(), p.getTiley(), CommandDispatcher.TILE_SUMMON_HIGHLIGHT);
-                    gameState.getHighlightedSummonTiles().add(key);
-                }
-            }
+        for (Position p : rules.summonTiles(gameState, 1)) {
+            setTileMode(out, gameState, p.getTilex(), p.getTiley(), CommandDispatcher.TILE_SUMMON_HIGHLIGHT);
+            gameState.getHighlightedSummonTiles().add(p.getTilex() + "," + p.getTiley());
         }
 
         if (gameState.getHighlightedSummonTiles().isEmpty()) {
@@ -248,15 +268,12 @@ public class VisualFeedbackManager {
 
         int me = gameState.getCurrentPlayerId();
 
-        for (UnitEntity u : gameState.getUnitsById().values()) {
-            if (u == null || u.getPosition() == null) continue;
-            if (u.getOwnerPlayerId() == me) continue;
-
-            int x = u.getPosition().getTilex();
-            int y = u.getPosition().getTiley();
+        for (Position p : rules.spellTargets(gameState, me)) {
+            int x = p.getTilex();
+            int y = p.getTiley();
             String key = x + "," + y;
 
-            ui.drawTileMode(out, x, y, CommandDispatcher.TILE_SPELL_TARGET_HIGHLIGHT);
+            setTileMode(out, gameState, x, y, CommandDispatcher.TILE_SPELL_TARGET_HIGHLIGHT);
             gameState.getHighlightedSpellTargets().add(key);
         }
 
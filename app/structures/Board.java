@@ -2,19 +2,44 @@ package structures;
 
 import structures.basic.Position;
 
-import java.util.Collections;
-import java.util.HashMap;
-import java.util.Map;
+import java.util.Arrays;
 import java.util.Objects;
 import java.util.Optional;
 
 
+/**
+ * Which unit stands on which tile (1-based coordinates). Occupancy is an array indexed by
+ * (y-1)*width + (x-1), so a lookup does not build a key.
+ *
+ * The board also keeps, per player, bit masks of the tiles their units stand on and two
+ * coverage maps (see BoardMasks for the bit layout), updated on every put/move/remove:
+ * attack coverage, the tiles next to one of their units (attackable now), and threat coverage,
+ * the tiles they could attack next turn after a default move (blocking ignored). Each covered
+ * tile keeps a count of the units covering it, so an update only touches the cells of the unit
+ * that changed.
+ *
+ * Every change bumps getVersion(). reachable() caches the move tiles of a cell per MoveProfile
+ * and reuses them until the version changes, so highlighting, the legal action map and the AI
+ * ask for the same unit's moves without walking the rays again.
+ */
 public class Board {
 
     private final int width;
     private final int height;
+    private final BoardMasks masks;
 
-    private final Map<String, UnitEntity> occupancy = new HashMap<>();
+    private final UnitEntity[] occupancy;
+
+    // by owner index (0 = no valid owner, 1, 2)
+    private final long[] occupied = new long[3];
+    private final long[] attackCoverage = new long[3];
+    private final long[] threatCoverage = new long[3];
+    private final int[][] attackCount;
+    private final int[][] threatCount;
+
+    private int version;
+    private final long[][] reachCache;        // by profile and cell
+    private final int[][] reachCacheVersion;  // version the entry was computed at, -1 = none
 
     public Board(int width, int height) {
         if (width <= 0 || height <= 0) {
@@ -22,8 +47,22 @@ public class Board {
         }
         this.width = width;
         this.height = height;
+        this.masks = BoardMasks.of(width, height);
+        this.occupancy = new UnitEntity[width * height];
+        this.attackCount = new int[3][width * height];
+        this.threatCount = new int[3][width * height];
+        this.reachCache = new long[MoveProfile.values().length][width * height];
+        this.reachCacheVersion = new int[MoveProfile.values().length][width * height];
+        for (int[] v : reachCacheVersion) Arrays.fill(v, -1);
     }
 
+    public int getWidth() { return width; }
+    public int getHeight() { return height; }
+    public BoardMasks getMasks() { return masks; }
+
+    /** Incremented by every put, move and remove. */
+    public int getVersion() { return version; }
+
     public boolean isWithinBounds(Position p) {
         Objects.requireNonNull(p, "Position cannot be null.");
         int x = p.getTilex();
@@ -37,12 +76,12 @@ public class Board {
 
     public boolean isOccupied(Position p) {
         requireValid(p);
-        return occupancy.containsKey(key(p));
+        return occupancy[index(p)] != null;
     }
 
     public Optional<UnitEntity> getUnitAt(Position p) {
         requireValid(p);
-        return Optional.ofNullable(occupancy.get(key(p)));
+        return Optional.ofNullable(occupancy[index(p)]);
     }
 
     public void putUnit(Position p, UnitEntity unit) {
@@ -53,32 +92,130 @@ public class Board {
             throw new IllegalStateException("Tile already occupied: " + key(p));
         }
 
-        occupancy.put(key(p), unit);
+        occupancy[index(p)] = unit;
+        place(unit, index(p), 1);
     }
 
     public void moveUnit(Position from, Position to) {
         requireValid(from);
         requireValid(to);
 
-        String fromKey = key(from);
-        String toKey = key(to);
+        int fromIndex = index(from);
+        int toIndex = index(to);
 
-        UnitEntity unit = occupancy.get(fromKey);
+        UnitEntity unit = occupancy[fromIndex];
         if (unit == null) {
-            throw new IllegalStateException("No unit at source tile: " + fromKey);
+            throw new IllegalStateException("No unit at source tile: " + key(from));
         }
 
-        if (occupancy.containsKey(toKey)) {
-            throw new IllegalStateException("Target tile occupied: " + toKey);
+        if (occupancy[toIndex] != null) {
+            throw new IllegalStateException("Target tile occupied: " + key(to));
         }
 
-        occupancy.remove(fromKey);
-        occupancy.put(toKey, unit);
+        occupancy[fromIndex] = null;
+        place(unit, fromIndex, -1);
+        occupancy[toIndex] = unit;
+        place(unit, toIndex, 1);
     }
 
     public void removeUnit(Position p) {
         requireValid(p);
-        occupancy.remove(key(p));
+        UnitEntity unit = occupancy[index(p)];
+        if (unit == null) return;
+        occupancy[index(p)] = null;
+        place(unit, index(p), -1);
+    }
+
+    // ----------------------------
+    // Masks and coverage
+    // ----------------------------
+
+    /** Cell index of the tile, see BoardMasks. */
+    public int indexOf(Position p) {
+        requireValid(p);
+        return index(p);
+    }
+
+    /** Bit of the tile, see BoardMasks. */
+    public long bit(Position p) {
+        return 1L << indexOf(p);
+    }
+
+    /** Tiles with a unit on them. */
+    public long getOccupiedMask() {
+        return occupied[0] | occupied[1] | occupied[2];
+    }
+
+    /** Tiles with a unit of the player on them. */
+    public long getOccupiedMask(int playerId) {
+        return occupied[owner(playerId)];
+    }
+
+    /** Tiles next to a unit of the player, i.e. attackable by the player without moving. */
+    public long getAttackCoverage(int playerId) {
+        return attackCoverage[owner(playerId)];
+    }
+
+    /** Tiles the player's units could attack after one default move (blocking ignored). */
+    public long getThreatCoverage(int playerId) {
+        return threatCoverage[owner(playerId)];
+    }
+
+    /** Number of the player's units next to the tile. */
+    public int getAttackerCount(int playerId, Position p) {
+        requireValid(p);
+        return attackCount[owner(playerId)][index(p)];
+    }
+
+    public boolean isThreatenedBy(int playerId, Position p) {
+        return (getThreatCoverage(playerId) & bit(p)) != 0;
+    }
+
+    // ----------------------------
+    // Movement
+    // ----------------------------
+
+    /**
+     * @param from tile of the moving unit
+     * @param profile how the unit moves
+     * @return the empty tiles the unit on the tile can move to; enemy units of the unit's owner
+     * block the way (cached until the board changes)
+     */
+    public long reachable(Position from, MoveProfile profile) {
+        int i = indexOf(from);
+        int p = profile.ordinal();
+        if (reachCacheVersion[p][i] != version) {
+            UnitEntity unit = occupancy[i];
+            long friends = occupied[unit != null ? owner(unit.getOwnerPlayerId()) : 0];
+            long all = getOccupiedMask();
+            reachCache[p][i] = profile.reachable(masks, i, all, all & ~friends);
+            reachCacheVersion[p][i] = version;
+        }
+        return reachCache[p][i];
+    }
+
+    // adds (delta 1) or removes (delta -1) the unit at the cell from occupancy and coverage
+    private void place(UnitEntity unit, int index, int delta) {
+        int o = owner(unit.getOwnerPlayerId());
+        version++;
+        if (delta > 0) occupied[o] |= 1L << index;
+        else occupied[o] &= ~(1L << index);
+        attackCoverage[o] = cover(attackCount[o], attackCoverage[o], masks.adjacent(index), delta);
+        threatCoverage[o] = cover(threatCount[o], threatCoverage[o], masks.threat(index), delta);
+    }
+
+    private static long cover(int[] count, long coverage, long cells, int delta) {
+        for (long m = cells; m != 0; m &= m - 1) {
+            int i = Long.numberOfTrailingZeros(m);
+            count[i] += delta;
+            if (count[i] > 0) coverage |= 1L << i;
+            else coverage &= ~(1L << i);
+        }
+        return coverage;
+    }
+
+    private static int owner(int playerId) {
+        return (playerId == 1 || playerId == 2) ? playerId : 0;
     }
 
     private void requireValid(Position p) {
@@ -90,6 +227,10 @@ public class Board {
         }
     }
 
+    private int index(Position p) {
+        return (p.getTiley() - 1) * width + (p.getTilex() - 1);
+    }
+
     private String key(Position p) {
         return p.getTilex() + "," + p.getTiley();
     }
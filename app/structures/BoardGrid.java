@@ -0,0 +1,105 @@
+package structures;
+
+import structures.basic.Position;
+import structures.basic.Tile;
+import utils.BasicObjectBuilders;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The cells of the game board as flyweights: one immutable Position and one immutable Tile
+ * per cell (1-based, like Board), built once from tile.json. Movement, combat, highlighting
+ * and the AI look cells up here instead of allocating a Position per coordinate they consider
+ * and loading a Tile per click.
+ *
+ * A coordinate off the board gets a new Position (or Tile), so a caller can still build a
+ * neighbour first and then ask Board.isValidPosition.
+ */
+public final class BoardGrid {
+
+    public static final int WIDTH = 9;
+    public static final int HEIGHT = 5;
+
+    private BoardGrid() {}
+
+    // built on first use, so classes that only need the constants do not read tile.json
+    private static final class Cells {
+        static final Position[] POSITIONS = new Position[WIDTH * HEIGHT];
+        static final Tile[] TILES = new Tile[WIDTH * HEIGHT];
+
+        static {
+            for (int y = 1; y <= HEIGHT; y++) {
+                for (int x = 1; x <= WIDTH; x++) {
+                    Tile t = BasicObjectBuilders.loadTile(x, y);
+                    TILES[index(x, y)] = new FixedTile(t);
+                    POSITIONS[index(x, y)] = new FixedPosition(t.getXpos(), t.getYpos(), x, y);
+                }
+            }
+        }
+    }
+
+    public static boolean contains(int tilex, int tiley) {
+        return tilex >= 1 && tilex <= WIDTH && tiley >= 1 && tiley <= HEIGHT;
+    }
+
+    /** Cell index (y-1)*WIDTH + (x-1), only meaningful for cells on the board. */
+    public static int index(int tilex, int tiley) {
+        return (tiley - 1) * WIDTH + (tilex - 1);
+    }
+
+    /**
+     * @return the shared position of the cell, or a new position if the coordinate is off the board
+     */
+    public static Position position(int tilex, int tiley) {
+        if (contains(tilex, tiley)) return Cells.POSITIONS[index(tilex, tiley)];
+        Position p = new Position();
+        p.setTilex(tilex);
+        p.setTiley(tiley);
+        return p;
+    }
+
+    /**
+     * @return the shared tile of the cell, or a newly loaded tile if the coordinate is off the board
+     */
+    public static Tile tile(int tilex, int tiley) {
+        if (contains(tilex, tiley)) return Cells.TILES[index(tilex, tiley)];
+        return BasicObjectBuilders.loadTile(tilex, tiley);
+    }
+
+    // ----------------------------
+    // Immutable cells
+    // ----------------------------
+
+    private static final class FixedPosition extends Position {
+
+        FixedPosition(int xpos, int ypos, int tilex, int tiley) {
+            super(xpos, ypos, tilex, tiley);
+        }
+
+        @Override public void setXpos(int xpos) { throw shared(); }
+        @Override public void setYpos(int ypos) { throw shared(); }
+        @Override public void setTilex(int tilex) { throw shared(); }
+        @Override public void setTiley(int tiley) { throw shared(); }
+    }
+
+    private static final class FixedTile extends Tile {
+
+        FixedTile(Tile t) {
+            super(Collections.unmodifiableList(t.getTileTextures()), t.getXpos(), t.getYpos(),
+                    t.getWidth(), t.getHeight(), t.getTilex(), t.getTiley());
+        }
+
+        @Override public void setTileTextures(List<String> tileTextures) { throw shared(); }
+        @Override public void setXpos(int xpos) { throw shared(); }
+        @Override public void setYpos(int ypos) { throw shared(); }
+        @Override public void setWidth(int width) { throw shared(); }
+        @Override public void setHeight(int height) { throw shared(); }
+        @Override public void setTilex(int tilex) { throw shared(); }
+        @Override public void setTiley(int tiley) { throw shared(); }
+    }
+
+    private static UnsupportedOperationException shared() {
+        return new UnsupportedOperationException("board cells are shared, use a new Position / Tile");
+    }
+}
\ No newline at end of file
@@ -0,0 +1,112 @@
+package structures;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Precomputed cell masks for a board of width x height tiles (at most 64 cells): every cell is
+ * one bit of a long, bit (y-1)*width + (x-1) for the 1-based tile (x,y). Board keeps occupancy
+ * and coverage as such masks, so "which enemies are next to this unit" or "is this tile under
+ * threat" is a couple of AND operations.
+ *
+ * Shared by every board of the same size, see of().
+ */
+public final class BoardMasks {
+
+    /** Ray directions: the 4 cardinal ones first, then the 4 diagonal ones. */
+    public static final int DIRECTIONS = 8;
+    private static final int[] DX = { 1, -1, 0, 0, 1, 1, -1, -1 };
+    private static final int[] DY = { 0, 0, 1, -1, 1, -1, 1, -1 };
+
+    private static final Map<Integer, BoardMasks> BY_SIZE = new ConcurrentHashMap<>();
+
+    private final int width;
+    private final int height;
+    private final long all;
+    private final long[] adjacent; // by cell: the up to 8 cells around it
+    private final long[] moves;    // by cell: default move pattern (1-2 tiles cardinal, 1 diagonal), ignoring blocking
+    private final long[] threat;   // by cell: cells attackable from the cell or after one default move
+    private final int[][][] rays;  // by direction and cell: the cells walked from the cell to the edge, in order
+
+    private BoardMasks(int width, int height) {
+        this.width = width;
+        this.height = height;
+        int cells = width * height;
+        this.all = cells == 64 ? -1L : (1L << cells) - 1;
+
+        adjacent = new long[cells];
+        moves = new long[cells];
+        threat = new long[cells];
+        rays = new int[DIRECTIONS][cells][];
+
+        for (int y = 1; y <= height; y++) {
+            for (int x = 1; x <= width; x++) {
+                int i = index(x, y);
+                for (int dx = -1; dx <= 1; dx++) {
+                    for (int dy = -1; dy <= 1; dy++) {
+                        if (dx != 0 || dy != 0) adjacent[i] |= bit(x + dx, y + dy);
+                    }
+                }
+                moves[i] = bit(x + 1, y) | bit(x - 1, y) | bit(x, y + 1) | bit(x, y - 1)
+                        | bit(x + 2, y) | bit(x - 2, y) | bit(x, y + 2) | bit(x, y - 2)
+                        | bit(x + 1, y + 1) | bit(x + 1, y - 1) | bit(x - 1, y + 1) | bit(x - 1, y - 1);
+                for (int d = 0; d < DIRECTIONS; d++) {
+                    int length = 0;
+                    while (contains(x + DX[d] * (length + 1), y + DY[d] * (length + 1))) length++;
+                    int[] ray = new int[length];
+                    for (int k = 0; k < length; k++) ray[k] = index(x + DX[d] * (k + 1), y + DY[d] * (k + 1));
+                    rays[d][i] = ray;
+                }
+            }
+        }
+        for (int i = 0; i < cells; i++) {
+            long t = adjacent[i];
+            for (long m = moves[i]; m != 0; m &= m - 1) t |= adjacent[Long.numberOfTrailingZeros(m)];
+            threat[i] = t;
+        }
+    }
+
+    /**
+     * @return the masks for boards of this size
+     * @throws IllegalArgumentException if the board has more than 64 cells
+     */
+    public static BoardMasks of(int width, int height) {
+        if (width * height > 64) {
+            throw new IllegalArgumentException("Board too large for cell masks: " + width + "x" + height);
+        }
+        return BY_SIZE.computeIfAbsent(width * 64 + height, k -> new BoardMasks(width, height));
+    }
+
+    public int getWidth() { return width; }
+    public int getHeight() { return height; }
+
+    /** Mask of every cell. */
+    public long all() { return all; }
+
+    public boolean contains(int tilex, int tiley) {
+        return tilex >= 1 && tilex <= width && tiley >= 1 && tiley <= height;
+    }
+
+    public int index(int tilex, int tiley) {
+        return (tiley - 1) * width + (tilex - 1);
+    }
+
+    public int tilex(int index) { return index % width + 1; }
+    public int tiley(int index) { return index / width + 1; }
+
+    /** The bit of the tile, 0 if it is off the board. */
+    public long bit(int tilex, int tiley) {
+        return contains(tilex, tiley) ? 1L << index(tilex, tiley) : 0L;
+    }
+
+    public long adjacent(int index) { return adjacent[index]; }
+    public long moves(int index) { return moves[index]; }
+    public long threat(int index) { return threat[index]; }
+
+    /**
+     * @param index cell index
+     * @param direction 0..DIRECTIONS-1, cardinal directions first
+     * @return the cell indices from the cell towards the edge, nearest first (shared, do not modify)
+     */
+    public int[] ray(int index, int direction) { return rays[direction][index]; }
+}
@@ -0,0 +1,78 @@
+package structures;
+
+/**
+ * The rules data of one card type, read once from its configuration file by CardCatalog.
+ * Every CardInstance of the type shares it, so rules code and the AI work on these primitive
+ * fields instead of matching card names.
+ *
+ * typeId is the index of the type in the catalog (0..n-1), usable as an array index.
+ */
+public class CardDefinition {
+
+    public enum Kind { CREATURE, SPELL }
+
+    // Keyword bits, parsed from the card's rules text
+    public static final int PROVOKE = 1;
+    public static final int RUSH = 1 << 1;
+    public static final int FLYING = 1 << 2;
+    public static final int AIRDROP = 1 << 3;
+    public static final int DEATHWATCH = 1 << 4;
+    public static final int OPENING_GAMBIT = 1 << 5;
+    public static final int ARTIFACT = 1 << 6;
+
+    private final int typeId;
+    private final String configFile;
+    private final String cardname;
+    private final Kind kind;
+    private final int cost;
+    private final int attack;
+    private final int health;
+    private final int keywords;
+    private final String unitConfig; // creatures only
+
+    public CardDefinition(int typeId, String configFile, String cardname, Kind kind,
+                          int cost, int attack, int health, int keywords, String unitConfig) {
+        this.typeId = typeId;
+        this.configFile = configFile;
+        this.cardname = cardname;
+        this.kind = kind;
+        this.cost = cost;
+        this.attack = attack;
+        this.health = health;
+        this.keywords = keywords;
+        this.unitConfig = unitConfig;
+    }
+
+    public int getTypeId() { return typeId; }
+    public String getConfigFile() { return configFile; }
+    public String getCardname() { return cardname; }
+    public Kind getKind() { return kind; }
+    public boolean isCreature() { return kind == Kind.CREATURE; }
+    public int getCost() { return cost; }
+    public int getAttack() { return attack; }
+    public int getHealth() { return health; }
+    public int getKeywords() { return keywords; }
+    public String getUnitConfig() { return unitConfig; }
+
+    public boolean hasKeyword(int keyword) {
+        return (keywords & keyword) != 0;
+    }
+
+    /**
+     * @param rulesText the card's rules text rows, joined
+     * @return the keyword bits named in the text
+     */
+    public static int parseKeywords(String rulesText) {
+        if (rulesText == null) return 0;
+        String t = rulesText.toLowerCase();
+        int k = 0;
+        if (t.contains("provoke")) k |= PROVOKE;
+        if (t.contains("rush")) k |= RUSH;
+        if (t.contains("flying")) k |= FLYING;
+        if (t.contains("airdrop")) k |= AIRDROP;
+        if (t.contains("deathwatch")) k |= DEATHWATCH;
+        if (t.contains("opening gambit")) k |= OPENING_GAMBIT;
+        if (t.contains("artifact")) k |= ARTIFACT;
+        return k;
+    }
+}
@@ -12,11 +12,19 @@ public class CardInstance {
 
     private final Card visual;
 
+    // rules data of the card type, null for cards not in the CardCatalog
+    private final CardDefinition definition;
+
     public CardInstance(String cardKey, int manaCost, String configFile, Card visual) {
+        this(cardKey, manaCost, configFile, visual, null);
+    }
+
+    public CardInstance(String cardKey, int manaCost, String configFile, Card visual, CardDefinition definition) {
         this.cardKey = cardKey;
         this.manaCost = manaCost;
         this.configFile = configFile;
         this.visual = visual;
+        this.definition = definition;
     }
 
     public String getCardKey() {
@@ -34,4 +42,34 @@ public class CardInstance {
     public Card getVisual() {
         return visual;
     }
+
+    public CardDefinition getDefinition() {
+        return definition;
+    }
+
+    /**
+     * @return the card type id (see CardDefinition), or -1 if the card has no definition
+     */
+    public int getTypeId() {
+        return definition != null ? definition.getTypeId() : -1;
+    }
+
+    public boolean isCreature() {
+        if (definition != null) return definition.isCreature();
+        return visual != null && visual.getIsCreature();
+    }
+
+    /** Attack of the summoned unit (1 if the card has no definition). */
+    public int getAttack() {
+        return definition != null ? definition.getAttack() : 1;
+    }
+
+    /** Health of the summoned unit (1 if the card has no definition). */
+    public int getHealth() {
+        return definition != null ? definition.getHealth() : 1;
+    }
+
+    public boolean hasKeyword(int keyword) {
+        return definition != null && definition.hasKeyword(keyword);
+    }
 }
\ No newline at end of file
@@ -1,6 +1,8 @@
 package structures;
 
 import structures.basic.Player;
+import utils.CardCatalog;
+import utils.IntObjectMap;
 
 
 public class GameState {
@@ -36,17 +38,52 @@ public class GameState {
 	// Board
 	// -----------------------------
 	private Board board;
+	private RenderedBoard renderedBoard; // tile modes shown by the front-end, sized with the board
 	public Board getBoard() { return board; }
-	public void setBoard(Board board) { this.board = board; }
+	public void setBoard(Board board) {
+		this.board = board;
+		this.renderedBoard = (board != null) ? new RenderedBoard(board.getWidth(), board.getHeight()) : null;
+	}
+	public RenderedBoard getRenderedBoard() { return renderedBoard; }
 
 	// -----------------------------
 	// Units index
 	// -----------------------------
-	private final java.util.Map<Integer, UnitEntity> unitsById = new java.util.HashMap<>();
-	public java.util.Map<Integer, UnitEntity> getUnitsById() { return unitsById; }
-	public void addUnit(UnitEntity u) { unitsById.put(u.getId(), u); }
+	// units by id, plus one list per owner (index 1 and 2, in the order the units were added);
+	// set the owner before addUnit, the owner of a unit never changes afterwards
+	private final IntObjectMap<UnitEntity> unitsById = new IntObjectMap<>();
+	private final java.util.List<java.util.List<UnitEntity>> unitsByOwner = java.util.Arrays.asList(
+			new java.util.ArrayList<>(), new java.util.ArrayList<>(), new java.util.ArrayList<>());
+	private final java.util.List<java.util.List<UnitEntity>> unitsByOwnerView = java.util.Arrays.asList(
+			java.util.Collections.unmodifiableList(unitsByOwner.get(0)),
+			java.util.Collections.unmodifiableList(unitsByOwner.get(1)),
+			java.util.Collections.unmodifiableList(unitsByOwner.get(2)));
+
+	public void addUnit(UnitEntity u) {
+		UnitEntity previous = unitsById.put(u.getId(), u);
+		if (previous != null) ownerList(previous.getOwnerPlayerId()).remove(previous);
+		ownerList(u.getOwnerPlayerId()).add(u);
+	}
 	public UnitEntity getUnitById(int id) { return unitsById.get(id); }
-	public void removeUnitById(int id) { unitsById.remove(id); }
+	public void removeUnitById(int id) {
+		UnitEntity removed = unitsById.remove(id);
+		if (removed != null) ownerList(removed.getOwnerPlayerId()).remove(removed);
+	}
+	public int getUnitCount() { return unitsById.size(); }
+
+	/** Units of player 1 or 2 (read-only view, changes with the game). */
+	public java.util.List<UnitEntity> getUnitsOf(int playerId) {
+		return unitsByOwnerView.get(ownerIndex(playerId));
+	}
+
+	private java.util.List<UnitEntity> ownerList(int playerId) {
+		return unitsByOwner.get(ownerIndex(playerId));
+	}
+
+	// units without a valid owner are kept at index 0
+	private static int ownerIndex(int playerId) {
+		return (playerId == 1 || playerId == 2) ? playerId : 0;
+	}
 
 	// -----------------------------
 	// Avatars
@@ -123,10 +160,9 @@ public class GameState {
 			getPlayer2().setMana(mana);
 		}
 
-		for (UnitEntity u : unitsById.values()) {
-			if (u == null) continue;
-			if (u.getOwnerPlayerId() != current) continue;
-			u.resetTurnFlags(globalTurnNumber);
+		java.util.List<UnitEntity> own = getUnitsOf(current);
+		for (int i = 0; i < own.size(); i++) {
+			own.get(i).resetTurnFlags(globalTurnNumber);
 		}
 	}
 
@@ -141,13 +177,27 @@ public class GameState {
 	private int nextUnitId = 3000;
 	public int nextUnitId() { return nextUnitId++; }
 
+	// -----------------------------
+	// Card id generator (for the cards of both decks)
+	// -----------------------------
+	private int nextCardId = 1;
+	public int nextCardId() { return nextCardId++; }
+
+	// -----------------------------
+	// Card configs, pinned for the whole game (a config reload only affects new games)
+	// -----------------------------
+	private final CardCatalog catalog = CardCatalog.get();
+	public CardCatalog getCatalog() { return catalog; }
+
 	// -----------------------------
 	// Hand UI state (backend-only)
 	// -----------------------------
 	private boolean handHidden = false;
+	private final RenderedHand renderedHand = new RenderedHand(); // last hand sent to the front-end
 
 	public boolean isHandHidden() { return handHidden; }
 	public void setHandHidden(boolean hidden) { this.handHidden = hidden; }
+	public RenderedHand getRenderedHand() { return renderedHand; }
 
 	// --- Spell targeting ---
 	private boolean waitingSpellTarget = false;
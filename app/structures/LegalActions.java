@@ -0,0 +1,72 @@
+package structures;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Everything the current player may do right now: per unit the tiles it can move to and the
+ * enemies it can attack, and per hand card whether it can be played (summon or spell) and
+ * where. Computed by LegalActionService and pushed to the front-end so it can highlight a
+ * selection without waiting for the server; the server still validates every action.
+ *
+ * Tiles are stored as flat x,y pairs ({x1, y1, x2, y2, ...}), which is also the wire format.
+ */
+public class LegalActions {
+
+    public static final LegalActions NONE = new LegalActions(0, 0, Collections.emptyList(),
+            new int[0], new int[0], new int[0], new int[0]);
+
+    /**
+     * Move and attack tiles of one unit that can still act this turn.
+     */
+    public static class UnitActions {
+
+        private final int unitId;
+        private final int tilex;
+        private final int tiley;
+        private final int[] moves;
+        private final int[] attacks;
+
+        public UnitActions(int unitId, int tilex, int tiley, int[] moves, int[] attacks) {
+            this.unitId = unitId;
+            this.tilex = tilex;
+            this.tiley = tiley;
+            this.moves = moves;
+            this.attacks = attacks;
+        }
+
+        public int getUnitId() { return unitId; }
+        public int getTilex() { return tilex; }
+        public int getTiley() { return tiley; }
+        public int[] getMoves() { return moves; }
+        public int[] getAttacks() { return attacks; }
+    }
+
+    private final int playerId;
+    private final int turn;
+    private final List<UnitActions> units;
+    private final int[] summonCards;   // hand slots of affordable creature cards
+    private final int[] spellCards;    // hand slots of affordable spell cards
+    private final int[] summonTiles;   // shared by all creature cards
+    private final int[] spellTargets;  // shared by all spell cards
+
+    public LegalActions(int playerId, int turn, List<UnitActions> units,
+                        int[] summonCards, int[] spellCards, int[] summonTiles, int[] spellTargets) {
+        this.playerId = playerId;
+        this.turn = turn;
+        this.units = Collections.unmodifiableList(new ArrayList<>(units));
+        this.summonCards = summonCards;
+        this.spellCards = spellCards;
+        this.summonTiles = summonTiles;
+        this.spellTargets = spellTargets;
+    }
+
+    public int getPlayerId() { return playerId; }
+    public int getTurn() { return turn; }
+    public List<UnitActions> getUnits() { return units; }
+    public int[] getSummonCards() { return summonCards; }
+    public int[] getSpellCards() { return spellCards; }
+    public int[] getSummonTiles() { return summonTiles; }
+    public int[] getSpellTargets() { return spellTargets; }
+}
@@ -0,0 +1,55 @@
+package structures;
+
+/**
+ * How a unit moves: how far it may walk along the cardinal and diagonal rays of BoardMasks, or
+ * anywhere on the board when it flies. Walking stops at an enemy unit; a friendly unit can be
+ * walked past but not stood on.
+ *
+ * Board.reachable applies a profile to the current occupancy and caches the result until the
+ * board changes.
+ */
+public enum MoveProfile {
+
+    /** 1-2 tiles in a cardinal direction or 1 tile diagonally. */
+    DEFAULT(2, 1, false),
+
+    /** Any empty tile. */
+    FLYING(0, 0, true);
+
+    private final int cardinalRange;
+    private final int diagonalRange;
+    private final boolean flying;
+
+    MoveProfile(int cardinalRange, int diagonalRange, boolean flying) {
+        this.cardinalRange = cardinalRange;
+        this.diagonalRange = diagonalRange;
+        this.flying = flying;
+    }
+
+    public int getCardinalRange() { return cardinalRange; }
+    public int getDiagonalRange() { return diagonalRange; }
+    public boolean isFlying() { return flying; }
+
+    /**
+     * @param masks cell masks of the board
+     * @param from cell index of the moving unit
+     * @param occupied tiles with any unit on them
+     * @param blockers tiles that stop a walk (enemy units)
+     * @return the tiles the unit can end its move on
+     */
+    public long reachable(BoardMasks masks, int from, long occupied, long blockers) {
+        if (flying) return masks.all() & ~occupied;
+
+        long reach = 0;
+        for (int d = 0; d < BoardMasks.DIRECTIONS; d++) {
+            int[] ray = masks.ray(from, d);
+            int range = Math.min(d < 4 ? cardinalRange : diagonalRange, ray.length);
+            for (int k = 0; k < range; k++) {
+                long bit = 1L << ray[k];
+                if ((blockers & bit) != 0) break;
+                if ((occupied & bit) == 0) reach |= bit;
+            }
+        }
+        return reach;
+    }
+}
@@ -0,0 +1,87 @@
+package structures;
+
+/**
+ * Tile draw modes the front-end currently shows, plus the modes the current event wants.
+ *
+ * Highlight code asks for tile modes through VisualFeedbackManager. Inside a batch (one UI
+ * event, see VisualFeedbackManager.beginTileBatch) the requests only update the target mode,
+ * so clearing a highlight and re-highlighting the same tile costs nothing; when the batch
+ * ends, drawTile is sent only for tiles whose target differs from what is shown.
+ * Coordinates are the board's tilex/tiley (1-based).
+ */
+public class RenderedBoard {
+
+    /** Mode of a tile whose state on the front-end is not known (forces a draw). */
+    public static final int UNKNOWN = -1;
+
+    private final int width;
+    private final int height;
+    private final int[] shown;
+    private final int[] target;
+
+    private int batchDepth = 0;
+
+    public RenderedBoard(int width, int height) {
+        this.width = width;
+        this.height = height;
+        this.shown = new int[(width + 1) * (height + 1)];
+        this.target = new int[shown.length];
+        markAllShown(UNKNOWN);
+    }
+
+    public boolean contains(int x, int y) {
+        return x >= 1 && x <= width && y >= 1 && y <= height;
+    }
+
+    public int getWidth() { return width; }
+    public int getHeight() { return height; }
+
+    private int index(int x, int y) {
+        return y * (width + 1) + x;
+    }
+
+    public int shownMode(int x, int y) {
+        return shown[index(x, y)];
+    }
+
+    public int targetMode(int x, int y) {
+        return target[index(x, y)];
+    }
+
+    public void setTarget(int x, int y, int mode) {
+        target[index(x, y)] = mode;
+    }
+
+    public void markShown(int x, int y, int mode) {
+        shown[index(x, y)] = mode;
+        target[index(x, y)] = mode;
+    }
+
+    /**
+     * Records that every tile was drawn in the given mode (e.g. the initial board).
+     */
+    public void markAllShown(int mode) {
+        java.util.Arrays.fill(shown, mode);
+        java.util.Arrays.fill(target, mode);
+    }
+
+    // ----------------------------
+    // Batching
+    // ----------------------------
+
+    public void beginBatch() {
+        batchDepth++;
+    }
+
+    /**
+     * @return true if this closed the outermost batch (so pending changes should be drawn)
+     */
+    public boolean endBatch() {
+        if (batchDepth > 0) batchDepth--;
+        return batchDepth == 0;
+    }
+
+    public boolean isBatching() {
+        return batchDepth > 0;
+    }
+}
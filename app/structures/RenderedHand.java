@@ -0,0 +1,44 @@
+package structures;
+
+/**
+ * What the front-end currently shows in the human player's hand: for each slot the id of
+ * the drawn card and its draw mode, or nothing.
+ *
+ * VisualFeedbackManager compares this with the Hand to send only the deleteCard/drawCard
+ * commands that actually change something. Anything that draws or deletes hand cards
+ * directly must keep this in sync.
+ */
+public class RenderedHand {
+
+    private static final int EMPTY = -1;
+
+    // index = slot (index 0 unused)
+    private final int[] cardIds = new int[Hand.MAX_SLOT + 1];
+    private final int[] modes = new int[Hand.MAX_SLOT + 1];
+
+    public RenderedHand() {
+        clearAll();
+    }
+
+    public boolean isEmpty(int slot) {
+        return cardIds[slot] == EMPTY;
+    }
+
+    public boolean shows(int slot, int cardId, int mode) {
+        return cardIds[slot] == cardId && modes[slot] == mode;
+    }
+
+    public void set(int slot, int cardId, int mode) {
+        cardIds[slot] = cardId;
+        modes[slot] = mode;
+    }
+
+    public void clear(int slot) {
+        cardIds[slot] = EMPTY;
+        modes[slot] = EMPTY;
+    }
+
+    public void clearAll() {
+        for (int s = Hand.MIN_SLOT; s <= Hand.MAX_SLOT; s++) clear(s);
+    }
+}
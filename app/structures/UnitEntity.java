@@ -17,6 +17,8 @@ public class UnitEntity extends Unit {
     // Optional: ownership / controlling player id (keep simple for now)
     private int ownerPlayerId;
 
+    private MoveProfile moveProfile = MoveProfile.DEFAULT;
+
     public UnitEntity() {
         super();
     }
@@ -84,6 +86,14 @@ public class UnitEntity extends Unit {
         this.ownerPlayerId = ownerPlayerId;
     }
 
+    public MoveProfile getMoveProfile() {
+        return moveProfile;
+    }
+
+    public void setMoveProfile(MoveProfile moveProfile) {
+        this.moveProfile = Objects.requireNonNull(moveProfile, "moveProfile cannot be null");
+    }
+
     public void applyDamage(int amount) {
         if (amount < 0) throw new IllegalArgumentException("damage must be >= 0");
         setHealth(this.health - amount);
@@ -1,15 +1,27 @@
 package utils;
 
 import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
+import metrics.jfr.ConfigLoadEvent;
+
 import structures.basic.Card;
 import structures.basic.EffectAnimation;
+import structures.basic.ImageCorrection;
+import structures.basic.MiniCard;
+import structures.basic.Position;
 import structures.basic.Tile;
 import structures.basic.Unit;
+import structures.basic.UnitAnimation;
+import structures.basic.UnitAnimationSet;
 
 /**
  * This class contains methods for producing basic objects from configuration files
@@ -22,6 +34,12 @@ public class BasicObjectBuilders {
 	@JsonIgnore
 	protected static ObjectMapper mapper = new ObjectMapper(); // Jackson Java Object Serializer, is used to read java objects from a file
 
+	// frame name markers of idle, death, attack, move (run), channel (castloop) and hit, in UnitAnimationSet order
+	private static final String[] ANIMATION_MARKERS = {"_idle_", "_death_", "_attack_", "_run_", "_castloop_", "_hit_"};
+
+	// parsed units by configuration file, see loadUnit
+	private static final Map<String, Unit> unitPrototypes = new ConcurrentHashMap<>();
+
 	/**
 	 * This class produces a Card object (or anything that extends Card) given a configuration
 	 * file. Configuration files can be found in the conf/gameconfs directory. The card should
@@ -36,14 +54,17 @@ public class BasicObjectBuilders {
 	 * @return
 	 */
 	public static Card loadCard(String configurationFile, int id, Class<? extends Card> classtype) {
+		ConfigLoadEvent jfr = new ConfigLoadEvent();
+		jfr.begin();
 		try {
-			Card card = mapper.readValue(new File(configurationFile), classtype);
+			ConfigBundle bundle = ConfigBundle.installed();
+			Card card = bundle!=null ? bundle.card(configurationFile, classtype) : null;
+			if (card==null) card = mapper.readValue(new File(configurationFile), classtype);
 
 			// If the card is a creature, add its idle animation as the card animation
 			if (card.isCreature()) {
 				Unit unit = loadUnit(card.getUnitConfig(), -1, Unit.class);
-				List<String> idleAnimation = unit.getAnimations().getAllFrames().subList(unit.getAnimations().getIdle().getFrameStartEndIndices()[0], unit.getAnimations().getIdle().getFrameStartEndIndices()[1]);
-				card.getMiniCard().setAnimationFrames(idleAnimation.toArray(new String[idleAnimation.size()]));
+				card.getMiniCard().setAnimationFrames(idleFrames(unit));
 			}
 
 			card.setId(id);
@@ -51,10 +72,44 @@ public class BasicObjectBuilders {
 		} catch (Exception e) {
 			e.printStackTrace();
 
+		} finally {
+			configLoaded(jfr, "card", configurationFile);
 		}
 		return null;
 	}
 
+	/**
+	 * Creates the shared prototype of a card type from its parsed configuration: a copy whose
+	 * mini card shows the idle animation of the creature's unit. The parsed card is not changed.
+	 * @param card as read from the configuration file
+	 * @param unitPrototype the creature's unit prototype, null for spells
+	 * @return
+	 */
+	public static Card cardPrototype(Card card, Unit unitPrototype) {
+		MiniCard mini = card.getMiniCard();
+		if (mini!=null && unitPrototype!=null) {
+			mini = new MiniCard(mini.getCardTextures(), idleFrames(unitPrototype), mini.getFps(), mini.getIndex());
+		}
+		return new Card(card.getId(), card.getCardname(), card.getManacost(), mini, card.getBigCard(), card.getIsCreature(), card.getUnitConfig());
+	}
+
+	/**
+	 * Creates a card from a prototype, sharing its mini and big card (which must be treated as read-only).
+	 * @param prototype as returned by cardPrototype
+	 * @param id
+	 * @return
+	 */
+	public static Card instantiateCard(Card prototype, int id) {
+		return new Card(id, prototype.getCardname(), prototype.getManacost(), prototype.getMiniCard(),
+				prototype.getBigCard(), prototype.getIsCreature(), prototype.getUnitConfig());
+	}
+
+	private static String[] idleFrames(Unit unit) {
+		int[] idle = unit.getAnimations().getIdle().getFrameStartEndIndices();
+		List<String> idleAnimation = unit.getAnimations().getAllFrames().subList(idle[0], idle[1]);
+		return idleAnimation.toArray(new String[idleAnimation.size()]);
+	}
+
 	/**
 	 * This class produces a EffectAnimation object given a configuration
 	 * file. Configuration files can be found in the conf/gameconfs directory.
@@ -62,12 +117,18 @@ public class BasicObjectBuilders {
 	 * @return
 	 */
 	public static EffectAnimation loadEffect(String configurationFile) {
+		ConfigLoadEvent jfr = new ConfigLoadEvent();
+		jfr.begin();
 		try {
-			EffectAnimation effect = mapper.readValue(new File(configurationFile), EffectAnimation.class);
+			ConfigBundle bundle = ConfigBundle.installed();
+			EffectAnimation effect = bundle!=null ? bundle.effect(configurationFile) : null;
+			if (effect==null) effect = mapper.readValue(new File(configurationFile), EffectAnimation.class);
 			return effect;
 		} catch (Exception e) {
 			e.printStackTrace();
 
+		} finally {
+			configLoaded(jfr, "effect", configurationFile);
 		}
 		return null;
 	}
@@ -77,126 +138,133 @@ public class BasicObjectBuilders {
 	 * in the conf/gameconfs directory. The unit needs to be given a unique identifier
 	 * (id). This method requires a classtype argument that specifies what type of
 	 * unit to create. 
+	 * 
+	 * Each configuration file is only parsed once: the parsed unit is kept as a prototype and
+	 * every call returns a new unit copied from it. All units of a configuration share the
+	 * prototype's UnitAnimationSet and ImageCorrection, which are read-only: their setters throw
+	 * UnsupportedOperationException.
 	 * @param configFile
 	 * @return
 	 */
 	public static Unit loadUnit(String configFile, int id,  Class<? extends Unit> classType) {
 
+		ConfigLoadEvent jfr = new ConfigLoadEvent();
+		jfr.begin();
 		try {
-			Unit unit = mapper.readValue(new File(configFile), classType);
-
-			// identify start and end frames automatically based on file names
-			// IDLE
-			{
-				int startframe = 0; int endframe = 0; int index = 0; boolean inAnimation = false;
-				for (String framename: unit.getAnimations().getAllFrames()) {
-					if (framename.contains("_idle_")) {
-						if (startframe==0) { startframe=index; inAnimation=true;}
-					} else {
-						if (inAnimation) { endframe=index-1; break;}
-					}
-					index++;
-				}
-				if (endframe==0) endframe=index;
-				int[] frameIndexes = {startframe, endframe};
-				if (inAnimation) unit.getAnimations().getIdle().setFrameStartEndIndices(frameIndexes);
+			Unit prototype = unitPrototypes.get(configFile);
+			if (prototype==null) {
+				prototype = parseUnitPrototype(configFile);
+				unitPrototypes.put(configFile, prototype);
 			}
+			return instantiateUnit(prototype, id, classType);
+		} catch (Exception e) {
+			e.printStackTrace();
 
-			// DEATH
-			{
-				int startframe = 0; int endframe = 0; int index = 0; boolean inAnimation = false;
-				for (String framename: unit.getAnimations().getAllFrames()) {
-					if (framename.contains("_death_")) {
-						if (startframe==0) { startframe=index; inAnimation=true;}
-					} else {
-						if (inAnimation) { endframe=index-1; break;}
-					}
-					index++;
-				}
-				if (endframe==0) endframe=index;
-				int[] frameIndexes = {startframe, endframe};
-				if (inAnimation) unit.getAnimations().getDeath().setFrameStartEndIndices(frameIndexes);
-			}
+		} finally {
+			configLoaded(jfr, "unit", configFile);
+		}
+		return null;
 
-			// ATTACK
-			{
-				int startframe = 0; int endframe = 0; int index = 0; boolean inAnimation = false;
-				for (String framename: unit.getAnimations().getAllFrames()) {
-					if (framename.contains("_attack_")) {
-						if (startframe==0) { startframe=index; inAnimation=true;}
-					} else {
-						if (inAnimation) { endframe=index-1; break;}
-					}
-					index++;
-				}
-				if (endframe==0) endframe=index;
-				int[] frameIndexes = {startframe, endframe};
-				if (inAnimation) unit.getAnimations().getAttack().setFrameStartEndIndices(frameIndexes);
-			}
+	}
 
-			// MOVE
-			{
-				int startframe = 0; int endframe = 0; int index = 0; boolean inAnimation = false;
-				for (String framename: unit.getAnimations().getAllFrames()) {
-					if (framename.contains("_run_")) {
-						if (startframe==0) { startframe=index; inAnimation=true;}
-					} else {
-						if (inAnimation) { endframe=index-1; break;}
-					}
-					index++;
-				}
-				if (endframe==0) endframe=index;
-				int[] frameIndexes = {startframe, endframe};
-				if (inAnimation) unit.getAnimations().getMove().setFrameStartEndIndices(frameIndexes);
-			}
+	/**
+	 * Drops the parsed unit prototypes, so the next loadUnit of each configuration reads the file again.
+	 */
+	public static void clearUnitPrototypes() {
+		unitPrototypes.clear();
+	}
 
-			// CHANNEL
-			{
-				int startframe = 0; int endframe = 0; int index = 0; boolean inAnimation = false;
-				for (String framename: unit.getAnimations().getAllFrames()) {
-					if (framename.contains("_castloop_")) {
-						if (startframe==0) { startframe=index; inAnimation=true;}
-					} else {
-						if (inAnimation) { endframe=index-1; break;}
-					}
-					index++;
-				}
-				if (endframe==0) endframe=index;
-				int[] frameIndexes = {startframe, endframe};
-				if (inAnimation) unit.getAnimations().getChannel().setFrameStartEndIndices(frameIndexes);
-			}
+	/**
+	 * Drops the parsed prototype of one unit configuration (e.g. because the file changed).
+	 * @param configFile
+	 */
+	public static void forgetUnitPrototype(String configFile) {
+		unitPrototypes.remove(configFile);
+	}
 
-			// HIT
-			{
-				int startframe = 0; int endframe = 0; int index = 0; boolean inAnimation = false;
-				for (String framename: unit.getAnimations().getAllFrames()) {
-					if (framename.contains("_hit_")) {
-						if (startframe==0) { startframe=index; inAnimation=true;}
-					} else {
-						if (inAnimation) { endframe=index-1; break;}
-					}
-					index++;
-				}
-				if (endframe==0) endframe=index;
-				int[] frameIndexes = {startframe, endframe};
-				if (inAnimation) unit.getAnimations().getChannel().setFrameStartEndIndices(frameIndexes);
-			}
+	/**
+	 * Creates a unit of the given class from a prototype, sharing its animations and image correction.
+	 * @param prototype as returned by parseUnitPrototype
+	 * @param id
+	 * @param classType
+	 * @return
+	 * @throws Exception if classType cannot be instantiated
+	 */
+	public static Unit instantiateUnit(Unit prototype, int id, Class<? extends Unit> classType) throws Exception {
+		Unit unit = classType.getDeclaredConstructor().newInstance();
+		unit.setAnimation(prototype.getAnimation());
+		Position p = prototype.getPosition();
+		if (p!=null) unit.setPosition(new Position(p.getXpos(), p.getYpos(), p.getTilex(), p.getTiley()));
+		unit.setAnimations(prototype.getAnimations());
+		unit.setCorrection(prototype.getCorrection());
+		unit.setId(id);
+		return unit;
+	}
 
-			// add full address to animation frames
-			for (int i =0; i<unit.getAnimations().getAllFrames().size(); i++) {
-				unit.getAnimations().getAllFrames().set(i, unit.getAnimations().getFrameDIR()+unit.getAnimations().getAllFrames().get(i));
-			}
+	/**
+	 * Parses a unit configuration file into a prototype: animation frame indices resolved and
+	 * frame paths made absolute, and its animations and image correction made read-only. The
+	 * prototype itself is never handed out, see instantiateUnit.
+	 * Taken from the installed ConfigBundle if it has the file.
+	 * @param configFile
+	 * @return
+	 * @throws Exception if the file cannot be read or parsed
+	 */
+	public static Unit parseUnitPrototype(String configFile) throws Exception {
+		ConfigBundle bundle = ConfigBundle.installed();
+		Unit unit = bundle!=null ? bundle.unitPrototype(configFile) : null;
+		if (unit==null) unit = parseUnitJson(configFile);
+		if (unit.getAnimations()!=null) unit.setAnimations(new FixedAnimationSet(unit.getAnimations()));
+		if (unit.getCorrection()!=null) unit.setCorrection(new FixedCorrection(unit.getCorrection()));
+		return unit;
+	}
+
+	/**
+	 * parseUnitPrototype from the JSON file.
+	 * @param configFile
+	 * @return
+	 * @throws Exception if the file cannot be read or parsed
+	 */
+	static Unit parseUnitJson(String configFile) throws Exception {
+		Unit unit = mapper.readValue(new File(configFile), Unit.class);
+		UnitAnimationSet animations = unit.getAnimations();
+		List<String> frames = animations.getAllFrames();
 
+		// identify start and end frames automatically based on file names, in one pass over the
+		// frames: each animation is the first run of frames whose name contains its marker
+		UnitAnimation[] targets = {animations.getIdle(), animations.getDeath(), animations.getAttack(),
+				animations.getMove(), animations.getChannel(), animations.getHit()};
+		int[] start = new int[ANIMATION_MARKERS.length];
+		int[] end = new int[ANIMATION_MARKERS.length];
+		Arrays.fill(start, -1);
+		Arrays.fill(end, -1);
 
+		for (int index = 0; index < frames.size(); index++) {
+			String framename = frames.get(index);
+			for (int a = 0; a < ANIMATION_MARKERS.length; a++) {
+				if (framename.contains(ANIMATION_MARKERS[a])) {
+					if (start[a]<0) start[a] = index;
+				} else if (start[a]>=0 && end[a]<0) {
+					end[a] = index-1;
+				}
+			}
+		}
 
-			unit.setId(id);
-			return unit;
-		} catch (Exception e) {
-			e.printStackTrace();
+		for (int a = 0; a < ANIMATION_MARKERS.length; a++) {
+			if (start[a]<0 || targets[a]==null) continue;
+			// a run that reaches the last frame ends at frames.size(), as it always has
+			int[] frameIndexes = {start[a], end[a]<0 ? frames.size() : end[a]};
+			targets[a].setFrameStartEndIndices(frameIndexes);
+		}
 
+		// add full address to animation frames
+		List<String> addressed = new ArrayList<String>(frames.size());
+		for (String framename : frames) {
+			addressed.add(animations.getFrameDIR()+framename);
 		}
-		return null;
+		animations.setAllFrames(Collections.unmodifiableList(addressed));
 
+		return unit;
 	}
 
 	/**
@@ -210,14 +278,89 @@ public class BasicObjectBuilders {
 		int gridTopLeftx = 410;
 		int gridTopLefty = 280;
 
-		Tile tile = Tile.constructTile(StaticConfFiles.tileConf);
+		ConfigLoadEvent jfr = new ConfigLoadEvent();
+		jfr.begin();
+		ConfigBundle bundle = ConfigBundle.installed();
+		Tile tile = bundle!=null ? bundle.tile(StaticConfFiles.tileConf) : null;
+		if (tile==null) tile = Tile.constructTile(StaticConfFiles.tileConf);
 		tile.setXpos((tile.getWidth()*x)+(gridmargin*x)+gridTopLeftx);
 		tile.setYpos((tile.getHeight()*y)+(gridmargin*y)+gridTopLefty);
 		tile.setTilex(x);
 		tile.setTiley(y);
+		configLoaded(jfr, "tile", StaticConfFiles.tileConf);
 
 		return tile;
 
 	}
 
+	private static void configLoaded(ConfigLoadEvent jfr, String kind, String configFile) {
+		jfr.end();
+		if (jfr.shouldCommit()) {
+			jfr.fill(0);
+			jfr.kind = kind;
+			jfr.configFile = configFile;
+			jfr.commit();
+		}
+	}
+
+	private static final class FixedAnimationSet extends UnitAnimationSet {
+
+		FixedAnimationSet(UnitAnimationSet s) {
+			super(Collections.unmodifiableList(s.getAllFrames()), s.getFrameDIR(), fixed(s.getIdle()),
+					fixed(s.getDeath()), fixed(s.getAttack()), fixed(s.getMove()), fixed(s.getChannel()),
+					fixed(s.getHit()));
+		}
+
+		private static UnitAnimation fixed(UnitAnimation a) {
+			return a!=null ? new FixedAnimation(a) : null;
+		}
+
+		@Override public void setAllFrames(List<String> allFrames) { throw shared(); }
+		@Override public void setFrameDIR(String frameDIR) { throw shared(); }
+		@Override public void setIdle(UnitAnimation idle) { throw shared(); }
+		@Override public void setDeath(UnitAnimation death) { throw shared(); }
+		@Override public void setAttack(UnitAnimation attack) { throw shared(); }
+		@Override public void setMove(UnitAnimation move) { throw shared(); }
+		@Override public void setChannel(UnitAnimation channel) { throw shared(); }
+		@Override public void setHit(UnitAnimation hit) { throw shared(); }
+	}
+
+	private static final class FixedAnimation extends UnitAnimation {
+
+		FixedAnimation(UnitAnimation a) {
+			super(a.getFrameStartEndIndices()!=null ? a.getFrameStartEndIndices().clone() : null, a.getFps(), a.isLoop());
+		}
+
+		// copied, so that the shared indices cannot be changed through the array
+		@Override public int[] getFrameStartEndIndices() {
+			int[] indices = super.getFrameStartEndIndices();
+			return indices!=null ? indices.clone() : null;
+		}
+
+		@Override public void setFrameStartEndIndices(int[] frameStartEndIndices) { throw shared(); }
+		@Override public void setFps(int fps) { throw shared(); }
+		@Override public void setLoop(boolean loop) { throw shared(); }
+	}
+
+	private static final class FixedCorrection extends ImageCorrection {
+
+		FixedCorrection(ImageCorrection c) {
+			super(c.getImgWidth(), c.getImgHeight(), c.getSpriteTopLeftX(), c.getSpriteTopLeftY(),
+					c.getOffsetX(), c.getOffsetY(), c.getScale(), c.isReflected());
+		}
+
+		@Override public void setImgWidth(double imgWidth) { throw shared(); }
+		@Override public void setImgHeight(double imgHeight) { throw shared(); }
+		@Override public void setSpriteTopLeftX(double spriteTopLeftX) { throw shared(); }
+		@Override public void setSpriteTopLeftY(double spriteTopLeftY) { throw shared(); }
+		@Override public void setOffsetX(double offsetX) { throw shared(); }
+		@Override public void setOffsetY(double offsetY) { throw shared(); }
+		@Override public void setScale(double scale) { throw shared(); }
+		@Override public void setReflected(boolean reflected) { throw shared(); }
+	}
+
+	private static UnsupportedOperationException shared() {
+		return new UnsupportedOperationException("unit animations are shared by all units of a configuration");
+	}
+
 }
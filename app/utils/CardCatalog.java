@@ -0,0 +1,361 @@
+package utils;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import structures.CardDefinition;
+import structures.basic.BigCard;
+import structures.basic.Card;
+import structures.basic.Unit;
+
+/**
+ * The card definition table, built from the card files in conf/gameconfs/cards. Each card
+ * type gets an integer type id and a CardDefinition holding its kind, cost, attack, health,
+ * keywords and, for creatures, the unit file it summons (so summoning is a map lookup instead
+ * of probing the file system). The catalog also holds the parsed unit prototypes of those
+ * creatures, a shared prototype Card per type (see newCard) and the deck lists of
+ * conf/gameconfs/decks, each a list of card files with a number of copies.
+ *
+ * A catalog is immutable and has a version. get() returns the latest published version; a
+ * GameState keeps the version that was current when the game started, so a reload of the
+ * config files (see ConfigReloader) only affects new games.
+ *
+ * The first version is built when the server starts (see CardCatalogStartup), which also
+ * reports any problems found, e.g. a creature card whose unit file does not exist. Outside
+ * the server (tests, benchmarks) it is built by the first call to get().
+ */
+public class CardCatalog {
+
+	public static final String CARDS_DIR = "conf/gameconfs/cards";
+	public static final String UNITS_DIR = "conf/gameconfs/units";
+	public static final String DECKS_DIR = "conf/gameconfs/decks";
+
+	private static final AtomicReference<CardCatalog> current = new AtomicReference<CardCatalog>();
+	private static final AtomicLong nextVersion = new AtomicLong(1);
+
+	private final long version;
+	private final String cardsDir;
+	private final String unitsDir;
+	private final String decksDir;
+	private final Map<String,Card> cards; // parsed card files, kept so a reload only parses what changed
+	private final Map<String,Card> cardPrototypes; // card config file -> prototype, see newCard
+	private final Map<String,Unit> unitPrototypes; // unit config file -> prototype, for the creatures
+	private final CardDefinition[] definitions; // by type id
+	private final Map<String,CardDefinition> byConfigFile;
+	private final Map<String,List<CardDefinition>> decks; // deck name -> one definition per card
+	private final List<String> problems;
+
+	private CardCatalog(String cardsDir, String unitsDir, String decksDir, Map<String,Card> cards,
+			Map<String,Card> cardPrototypes, Map<String,Unit> unitPrototypes, List<CardDefinition> definitions,
+			List<String> problems) {
+		this.version = nextVersion.getAndIncrement();
+		this.cardsDir = cardsDir;
+		this.unitsDir = unitsDir;
+		this.decksDir = decksDir;
+		this.cards = cards;
+		this.cardPrototypes = cardPrototypes;
+		this.unitPrototypes = unitPrototypes;
+		this.definitions = definitions.toArray(new CardDefinition[definitions.size()]);
+		this.byConfigFile = new HashMap<String,CardDefinition>();
+		for (CardDefinition definition : definitions) byConfigFile.put(definition.getConfigFile(), definition);
+		this.decks = loadDecks(decksDir, byConfigFile, problems);
+		this.problems = Collections.unmodifiableList(problems);
+	}
+
+	/**
+	 * @return the latest published catalog of the game's card configuration files
+	 */
+	public static CardCatalog get() {
+		CardCatalog catalog = current.get();
+		if (catalog==null) {
+			current.compareAndSet(null, load(CARDS_DIR, UNITS_DIR, DECKS_DIR));
+			catalog = current.get();
+		}
+		return catalog;
+	}
+
+	/**
+	 * Makes the catalog the one new games get. Games already running keep theirs.
+	 * @param catalog
+	 */
+	public static void publish(CardCatalog catalog) {
+		current.set(catalog);
+	}
+
+	/**
+	 * Reads every card file in cardsDir into a definition (type ids in file name order) and
+	 * resolves and parses the unit files of the creatures, without deck lists. A card that
+	 * cannot be read or resolved is recorded as a problem and left out.
+	 * @param cardsDir
+	 * @param unitsDir
+	 * @return
+	 */
+	public static CardCatalog load(String cardsDir, String unitsDir) {
+		return load(cardsDir, unitsDir, null);
+	}
+
+	/**
+	 * Like load(cardsDir, unitsDir), and reads the deck lists in decksDir. A deck entry naming
+	 * a card that is not in the catalog is recorded as a problem and left out.
+	 * @param cardsDir
+	 * @param unitsDir
+	 * @param decksDir
+	 * @return
+	 */
+	public static CardCatalog load(String cardsDir, String unitsDir, String decksDir) {
+		return build(null, Collections.<String>emptySet(), cardsDir, unitsDir, decksDir);
+	}
+
+	/**
+	 * Builds the next version of this catalog. Only the changed files (and files that are new)
+	 * are parsed again, everything else is taken over from this version. Deck lists are always
+	 * read again.
+	 * @param changedFiles paths of changed card and unit files, as cardsDir/name or unitsDir/name
+	 * @return the new catalog, not yet published
+	 */
+	public CardCatalog reload(Collection<String> changedFiles) {
+		Set<String> changed = new HashSet<String>();
+		for (String file : changedFiles) changed.add(file.replace('\\', '/'));
+		return build(this, changed, cardsDir, unitsDir, decksDir);
+	}
+
+	private static CardCatalog build(CardCatalog previous, Set<String> changed, String cardsDir, String unitsDir,
+			String decksDir) {
+		Map<String,Card> cards = new HashMap<String,Card>();
+		Map<String,Card> cardPrototypes = new HashMap<String,Card>();
+		Map<String,Unit> unitPrototypes = new HashMap<String,Unit>();
+		List<CardDefinition> definitions = new ArrayList<CardDefinition>();
+		List<String> problems = new ArrayList<String>();
+
+		String[] cardFiles = new File(cardsDir).list((d, name) -> name.endsWith(".json"));
+		String[] unitFiles = new File(unitsDir).list((d, name) -> name.endsWith(".json"));
+		if (cardFiles==null) {
+			problems.add("card directory "+cardsDir+" not found");
+			return new CardCatalog(cardsDir, unitsDir, decksDir, cards, cardPrototypes, unitPrototypes, definitions, problems);
+		}
+		if (unitFiles==null) unitFiles = new String[0];
+		Arrays.sort(cardFiles);
+		Arrays.sort(unitFiles);
+
+		for (String filename : cardFiles) {
+			String cardConfig = cardsDir+"/"+filename;
+			Card card = (previous!=null && !changed.contains(cardConfig)) ? previous.cards.get(cardConfig) : null;
+			if (card==null) {
+				try {
+					ConfigBundle bundle = ConfigBundle.installed();
+					if (bundle!=null) card = bundle.card(cardConfig, Card.class);
+					if (card==null) card = BasicObjectBuilders.mapper.readValue(new File(cardConfig), Card.class);
+				} catch (Exception e) {
+					problems.add(cardConfig+": unreadable ("+e.getMessage()+")");
+					continue;
+				}
+			}
+			cards.put(cardConfig, card);
+
+			BigCard big = card.getBigCard();
+			int keywords = 0;
+			if (big!=null && big.getRulesTextRows()!=null) keywords = CardDefinition.parseKeywords(String.join(" ", big.getRulesTextRows()));
+
+			if (!card.getIsCreature()) {
+				cardPrototypes.put(cardConfig, BasicObjectBuilders.cardPrototype(card, null));
+				definitions.add(new CardDefinition(definitions.size(), cardConfig, card.getCardname(), CardDefinition.Kind.SPELL,
+						card.getManacost(), 0, 0, keywords, null));
+				continue;
+			}
+
+			String unitConfig = card.getUnitConfig();
+			if (unitConfig==null || !new File(unitConfig).isFile()) {
+				// fall back to the unit file named after the card, e.g. 1_3_c_u_gloom_chaser -> gloom_chaser.json
+				String byName = unitFileByName(filename, unitFiles);
+				if (byName==null) {
+					problems.add(cardConfig+": unit config "+unitConfig+" not found");
+					continue;
+				}
+				problems.add(cardConfig+": unit config "+unitConfig+" not found, using "+unitsDir+"/"+byName);
+				unitConfig = unitsDir+"/"+byName;
+			}
+			if (big==null) {
+				problems.add(cardConfig+": creature without attack/health (bigCard)");
+				continue;
+			}
+
+			Unit prototype = unitPrototypes.get(unitConfig);
+			if (prototype==null && previous!=null && !changed.contains(unitConfig)) prototype = previous.unitPrototypes.get(unitConfig);
+			if (prototype==null) {
+				try {
+					prototype = BasicObjectBuilders.parseUnitPrototype(unitConfig);
+				} catch (Exception e) {
+					problems.add(cardConfig+": unit config "+unitConfig+" unreadable ("+e.getMessage()+")");
+					continue;
+				}
+			}
+			unitPrototypes.put(unitConfig, prototype);
+			cardPrototypes.put(cardConfig, BasicObjectBuilders.cardPrototype(card, prototype));
+
+			definitions.add(new CardDefinition(definitions.size(), cardConfig, card.getCardname(), CardDefinition.Kind.CREATURE,
+					card.getManacost(), big.getAttack(), big.getHealth(), keywords, unitConfig));
+		}
+
+		return new CardCatalog(cardsDir, unitsDir, decksDir, cards, cardPrototypes, unitPrototypes, definitions, problems);
+	}
+
+	private static Map<String,List<CardDefinition>> loadDecks(String decksDir, Map<String,CardDefinition> byConfigFile,
+			List<String> problems) {
+		Map<String,List<CardDefinition>> decks = new HashMap<String,List<CardDefinition>>();
+		if (decksDir==null) return decks;
+
+		String[] deckFiles = new File(decksDir).list((d, name) -> name.endsWith(".json"));
+		if (deckFiles==null) {
+			problems.add("deck directory "+decksDir+" not found");
+			return decks;
+		}
+		Arrays.sort(deckFiles);
+
+		for (String filename : deckFiles) {
+			String deckConfig = decksDir+"/"+filename;
+			List<CardDefinition> deck = new ArrayList<CardDefinition>();
+			try {
+				JsonNode entries = BasicObjectBuilders.mapper.readTree(new File(deckConfig)).path("cards");
+				for (JsonNode entry : entries) {
+					String cardConfig = entry.path("card").asText();
+					CardDefinition definition = byConfigFile.get(cardConfig);
+					if (definition==null) {
+						problems.add(deckConfig+": card "+cardConfig+" not in the catalog");
+						continue;
+					}
+					int copies = entry.path("copies").asInt(1);
+					for (int i = 0; i < copies; i++) deck.add(definition);
+				}
+			} catch (Exception e) {
+				problems.add(deckConfig+": unreadable ("+e.getMessage()+")");
+				continue;
+			}
+			decks.put(filename.substring(0, filename.length()-".json".length()), Collections.unmodifiableList(deck));
+		}
+		return decks;
+	}
+
+	public long getVersion() {
+		return version;
+	}
+
+	/**
+	 * @param cardConfigFile the card's configuration file, as given to BasicObjectBuilders.loadCard
+	 * @return the definition of the card, or null if the file is not in the catalog
+	 */
+	public CardDefinition definitionFor(String cardConfigFile) {
+		if (cardConfigFile==null) return null;
+		return byConfigFile.get(cardConfigFile.replace('\\', '/'));
+	}
+
+	/**
+	 * @param typeId
+	 * @return the definition with this type id, or null
+	 */
+	public CardDefinition definition(int typeId) {
+		if (typeId<0 || typeId>=definitions.length) return null;
+		return definitions[typeId];
+	}
+
+	/**
+	 * @param cardConfigFile the card's configuration file, as given to BasicObjectBuilders.loadCard
+	 * @return the unit configuration file the card summons, or null if it is not a (known) creature
+	 */
+	public String unitConfigFor(String cardConfigFile) {
+		CardDefinition definition = definitionFor(cardConfigFile);
+		return definition!=null ? definition.getUnitConfig() : null;
+	}
+
+	/**
+	 * Creates a card of this type without reading its configuration file. The card shares its
+	 * mini and big card with every other card of the type, see BasicObjectBuilders.instantiateCard.
+	 * @param cardConfigFile
+	 * @param id
+	 * @return the card, or null if the file is not in the catalog
+	 */
+	public Card newCard(String cardConfigFile, int id) {
+		if (cardConfigFile==null) return null;
+		Card prototype = cardPrototypes.get(cardConfigFile.replace('\\', '/'));
+		return prototype!=null ? BasicObjectBuilders.instantiateCard(prototype, id) : null;
+	}
+
+	/**
+	 * @param name the deck file name without .json, e.g. "human"
+	 * @return the cards of the deck in order (one definition per copy), empty if there is no such deck
+	 */
+	public List<CardDefinition> deckList(String name) {
+		List<CardDefinition> deck = decks.get(name);
+		return deck!=null ? deck : Collections.<CardDefinition>emptyList();
+	}
+
+	/**
+	 * Like BasicObjectBuilders.loadUnit, but creatures are created from this version's prototypes.
+	 * Units that no card summons (avatars, tokens) are loaded through BasicObjectBuilders.
+	 * @param unitConfig
+	 * @param id
+	 * @param classType
+	 * @return
+	 */
+	public Unit loadUnit(String unitConfig, int id, Class<? extends Unit> classType) {
+		Unit prototype = unitPrototypes.get(unitConfig);
+		if (prototype==null) return BasicObjectBuilders.loadUnit(unitConfig, id, classType);
+		try {
+			return BasicObjectBuilders.instantiateUnit(prototype, id, classType);
+		} catch (Exception e) {
+			e.printStackTrace();
+			return null;
+		}
+	}
+
+	/**
+	 * @return the number of card types
+	 */
+	public int size() {
+		return definitions.length;
+	}
+
+	/**
+	 * @return what was wrong with the card files when the catalog was built (empty if nothing)
+	 */
+	public List<String> getProblems() {
+		return problems;
+	}
+
+	public String getCardsDir() {
+		return cardsDir;
+	}
+
+	public String getUnitsDir() {
+		return unitsDir;
+	}
+
+	public String getDecksDir() {
+		return decksDir;
+	}
+
+	private static String unitFileByName(String cardFilename, String[] unitFiles) {
+		// <set>_<number>_c_u_<name>.json
+		String name = cardFilename.substring(0, cardFilename.length()-".json".length());
+		int marker = name.indexOf("_c_u_");
+		if (marker<0) return null;
+		name = name.substring(marker+"_c_u_".length());
+		if (name.isEmpty()) return null;
+
+		for (String unitFile : unitFiles) {
+			if (unitFile.contains(name)) return unitFile;
+		}
+		return null;
+	}
+}
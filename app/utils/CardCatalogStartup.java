@@ -0,0 +1,70 @@
+package utils;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.typesafe.config.Config;
+
+import play.inject.ApplicationLifecycle;
+
+/**
+ * Builds the CardCatalog when the server starts (bound as an eager singleton in Module), so
+ * problems with the card files are reported at boot rather than when a card is first played.
+ * If game.config.bundle names an up-to-date ConfigBundle it is installed first, so the catalog
+ * and later config loads read from it instead of the JSON files. With game.config.reload
+ * enabled it also starts the ConfigReloader, and stops it again when the application stops.
+ */
+@Singleton
+public class CardCatalogStartup {
+
+	private static final Logger log = LoggerFactory.getLogger(CardCatalogStartup.class);
+
+	@Inject
+	public CardCatalogStartup(Config config, ApplicationLifecycle lifecycle) {
+		if (config.hasPath("game.config.bundle")) installBundle(config.getString("game.config.bundle"));
+
+		CardCatalog catalog = CardCatalog.get();
+		for (String problem : catalog.getProblems()) {
+			log.warn("Card catalog: {}", problem);
+		}
+		log.info("Card catalog: {} card types, {} problems", catalog.size(), catalog.getProblems().size());
+
+		if (config.hasPath("game.config.reload") && config.getBoolean("game.config.reload")) {
+			try {
+				ConfigReloader reloader = ConfigReloader.start();
+				lifecycle.addStopHook(() -> {
+					reloader.stop();
+					return CompletableFuture.completedFuture(null);
+				});
+				log.info("Watching conf/gameconfs for changes");
+			} catch (Exception e) {
+				log.warn("Config reload disabled, cannot watch conf/gameconfs", e);
+			}
+		}
+	}
+
+	private static void installBundle(String bundleFile) {
+		if (!new File(bundleFile).isFile()) {
+			log.info("No config bundle at {}, reading conf/gameconfs (build one with sbt configBundle)", bundleFile);
+			return;
+		}
+		try {
+			if (ConfigBundle.isStale(bundleFile, "conf/gameconfs")) {
+				log.warn("Config bundle {} is older than conf/gameconfs, reading the JSON files instead", bundleFile);
+				return;
+			}
+			ConfigBundle bundle = ConfigBundle.open(bundleFile);
+			ConfigBundle.install(bundle);
+			log.info("Config bundle {}: {} files", bundleFile, bundle.size());
+		} catch (IOException e) {
+			log.warn("Config bundle "+bundleFile+" not usable, reading conf/gameconfs", e);
+		}
+	}
+}
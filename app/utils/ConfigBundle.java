@@ -0,0 +1,293 @@
+package utils;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import structures.basic.BigCard;
+import structures.basic.Card;
+import structures.basic.EffectAnimation;
+import structures.basic.ImageCorrection;
+import structures.basic.MiniCard;
+import structures.basic.Position;
+import structures.basic.Tile;
+import structures.basic.Unit;
+import structures.basic.UnitAnimation;
+import structures.basic.UnitAnimationSet;
+import structures.basic.UnitAnimationType;
+
+/**
+ * The configuration files of conf/gameconfs compiled into one binary file (see
+ * ConfigBundleCompiler), so the server does not have to parse dozens of JSON files with long
+ * frame lists at boot and on the first connection.
+ *
+ * Layout (big-endian):
+ * <pre>
+ * int magic, int format
+ * int stringCount, int[stringCount+1] offsets, UTF-8 bytes   -- every string once
+ * int entryCount, entryCount x (int file, int kind, int offset) -- file is a string index
+ * records                                                     -- fixed layout per kind
+ * </pre>
+ * Strings (frame paths, textures, names) are stored once and referenced by index, so a frame
+ * path shared by a card and its unit is one String in memory. The file is memory-mapped; open()
+ * only reads the entry index, strings and records are decoded when a file is first asked for.
+ *
+ * BasicObjectBuilders reads from the installed bundle when it contains the requested file and
+ * falls back to the JSON file otherwise. Nothing is installed unless the server is configured
+ * with game.config.bundle (see CardCatalogStartup), and ConfigReloader uninstalls the bundle
+ * when a JSON file changes.
+ */
+public class ConfigBundle {
+
+	static final int MAGIC = 0x47434231; // "GCB1"
+	static final int FORMAT = 1;
+
+	// record kinds
+	static final int CARD = 1;
+	static final int UNIT = 2; // stored as prototype, see BasicObjectBuilders.parseUnitPrototype
+	static final int EFFECT = 3;
+	static final int TILE = 4;
+
+	static final int NULL = -1; // string index or array length of a null value
+
+	private static volatile ConfigBundle installed;
+
+	private final String file;
+	private final ByteBuffer buffer;
+	private final int stringOffsets; // position of the offsets table
+	private final int stringData;    // position of the first string byte
+	private final String[] strings;  // decoded on first use
+	private final Map<String,int[]> entries; // file -> {kind, offset}
+
+	private ConfigBundle(String file, ByteBuffer buffer) throws IOException {
+		this.file = file;
+		this.buffer = buffer;
+
+		if (buffer.getInt(0)!=MAGIC) throw new IOException(file+" is not a config bundle");
+		if (buffer.getInt(4)!=FORMAT) throw new IOException(file+" has format "+buffer.getInt(4)+", expected "+FORMAT);
+
+		int stringCount = buffer.getInt(8);
+		this.stringOffsets = 12;
+		this.stringData = stringOffsets+4*(stringCount+1);
+		this.strings = new String[stringCount];
+
+		int position = stringData+buffer.getInt(stringOffsets+4*stringCount);
+		int entryCount = buffer.getInt(position);
+		position += 4;
+		this.entries = new HashMap<String,int[]>(entryCount*2);
+		for (int i = 0; i < entryCount; i++) {
+			String name = string(buffer.getInt(position));
+			entries.put(name, new int[] {buffer.getInt(position+4), buffer.getInt(position+8)});
+			position += 12;
+		}
+	}
+
+	/**
+	 * Memory-maps a bundle file and reads its entry index.
+	 * @param bundleFile
+	 * @return
+	 * @throws IOException if the file cannot be read or is not a bundle of this format
+	 */
+	public static ConfigBundle open(String bundleFile) throws IOException {
+		try (RandomAccessFile raf = new RandomAccessFile(bundleFile, "r"); FileChannel channel = raf.getChannel()) {
+			// the mapping stays valid after the channel is closed
+			return new ConfigBundle(bundleFile, channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+		}
+	}
+
+	/**
+	 * @param bundleFile
+	 * @param sourceDir the directory the bundle was compiled from
+	 * @return true if a JSON file in sourceDir was modified after the bundle was written
+	 * @throws IOException
+	 */
+	public static boolean isStale(String bundleFile, String sourceDir) throws IOException {
+		long compiled = new File(bundleFile).lastModified();
+		try (Stream<Path> files = Files.walk(Paths.get(sourceDir))) {
+			return files.anyMatch(p -> p.toString().endsWith(".json") && p.toFile().lastModified()>compiled);
+		}
+	}
+
+	/**
+	 * @return the bundle BasicObjectBuilders reads from, or null if configs are read from JSON
+	 */
+	public static ConfigBundle installed() {
+		return installed;
+	}
+
+	public static void install(ConfigBundle bundle) {
+		installed = bundle;
+	}
+
+	public static void uninstall() {
+		installed = null;
+	}
+
+	public String getFile() {
+		return file;
+	}
+
+	/**
+	 * @return the number of configuration files in the bundle
+	 */
+	public int size() {
+		return entries.size();
+	}
+
+	public boolean contains(String configFile) {
+		return entries.containsKey(key(configFile));
+	}
+
+	/**
+	 * @param configFile
+	 * @param classtype
+	 * @return the card, or null if the bundle has no card for this file
+	 * @throws Exception if classtype cannot be instantiated
+	 */
+	public Card card(String configFile, Class<? extends Card> classtype) throws Exception {
+		ByteBuffer in = record(configFile, CARD);
+		if (in==null) return null;
+
+		Card card = classtype.getDeclaredConstructor().newInstance();
+		card.setId(in.getInt());
+		card.setCardname(string(in.getInt()));
+		card.setManacost(in.getInt());
+		card.setIsCreature(in.get()!=0);
+		card.setUnitConfig(string(in.getInt()));
+		if (in.get()!=0) {
+			card.setMiniCard(new MiniCard(stringArray(in), stringArray(in), in.getInt(), in.getInt()));
+		}
+		if (in.get()!=0) {
+			int attack = in.getInt();
+			int health = in.getInt();
+			card.setBigCard(new BigCard(attack, health, stringArray(in), stringArray(in)));
+		}
+		return card;
+	}
+
+	/**
+	 * @param configFile
+	 * @return a new unit prototype (frame indices resolved, frame paths absolute), or null if
+	 * the bundle has no unit for this file
+	 */
+	public Unit unitPrototype(String configFile) {
+		ByteBuffer in = record(configFile, UNIT);
+		if (in==null) return null;
+
+		Unit unit = new Unit();
+		unit.setId(in.getInt());
+		String animation = string(in.getInt());
+		if (animation!=null) unit.setAnimation(UnitAnimationType.valueOf(animation));
+		if (in.get()!=0) unit.setPosition(new Position(in.getInt(), in.getInt(), in.getInt(), in.getInt()));
+		if (in.get()!=0) {
+			UnitAnimationSet animations = new UnitAnimationSet();
+			List<String> frames = stringList(in);
+			animations.setAllFrames(frames!=null ? Collections.unmodifiableList(frames) : null);
+			animations.setFrameDIR(string(in.getInt()));
+			animations.setIdle(animation(in));
+			animations.setDeath(animation(in));
+			animations.setAttack(animation(in));
+			animations.setMove(animation(in));
+			animations.setChannel(animation(in));
+			animations.setHit(animation(in));
+			unit.setAnimations(animations);
+		}
+		unit.setCorrection(correction(in));
+		return unit;
+	}
+
+	/**
+	 * @param configFile
+	 * @return the effect, or null if the bundle has no effect for this file
+	 */
+	public EffectAnimation effect(String configFile) {
+		ByteBuffer in = record(configFile, EFFECT);
+		if (in==null) return null;
+		return new EffectAnimation(stringList(in), correction(in), in.getInt());
+	}
+
+	/**
+	 * @param configFile
+	 * @return the tile, or null if the bundle has no tile for this file
+	 */
+	public Tile tile(String configFile) {
+		ByteBuffer in = record(configFile, TILE);
+		if (in==null) return null;
+		return new Tile(stringList(in), in.getInt(), in.getInt(), in.getInt(), in.getInt(), in.getInt(), in.getInt());
+	}
+
+	// a reader positioned at the record of the file, or null if the file is not in the bundle as this kind
+	private ByteBuffer record(String configFile, int kind) {
+		int[] entry = entries.get(key(configFile));
+		if (entry==null || entry[0]!=kind) return null;
+		ByteBuffer in = buffer.duplicate();
+		in.position(entry[1]);
+		return in;
+	}
+
+	private UnitAnimation animation(ByteBuffer in) {
+		if (in.get()==0) return null;
+		int[] indices = null;
+		int count = in.getInt();
+		if (count!=NULL) {
+			indices = new int[count];
+			for (int i = 0; i < count; i++) indices[i] = in.getInt();
+		}
+		return new UnitAnimation(indices, in.getInt(), in.get()!=0);
+	}
+
+	private ImageCorrection correction(ByteBuffer in) {
+		if (in.get()==0) return null;
+		return new ImageCorrection(in.getDouble(), in.getDouble(), in.getDouble(), in.getDouble(),
+				in.getDouble(), in.getDouble(), in.getDouble(), in.get()!=0);
+	}
+
+	private String[] stringArray(ByteBuffer in) {
+		int count = in.getInt();
+		if (count==NULL) return null;
+		String[] values = new String[count];
+		for (int i = 0; i < count; i++) values[i] = string(in.getInt());
+		return values;
+	}
+
+	private List<String> stringList(ByteBuffer in) {
+		int count = in.getInt();
+		if (count==NULL) return null;
+		List<String> values = new ArrayList<String>(count);
+		for (int i = 0; i < count; i++) values.add(string(in.getInt()));
+		return values;
+	}
+
+	private String string(int index) {
+		if (index==NULL) return null;
+		String value = strings[index];
+		if (value==null) {
+			// racing threads decode the same value, either copy is fine
+			int start = buffer.getInt(stringOffsets+4*index);
+			int end = buffer.getInt(stringOffsets+4*(index+1));
+			byte[] bytes = new byte[end-start];
+			ByteBuffer in = buffer.duplicate();
+			in.position(stringData+start);
+			in.get(bytes);
+			value = new String(bytes, StandardCharsets.UTF_8);
+			strings[index] = value;
+		}
+		return value;
+	}
+
+	static String key(String configFile) {
+		return configFile.replace('\\', '/');
+	}
+}
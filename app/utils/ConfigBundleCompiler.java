@@ -0,0 +1,287 @@
+package utils;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import structures.basic.BigCard;
+import structures.basic.Card;
+import structures.basic.EffectAnimation;
+import structures.basic.ImageCorrection;
+import structures.basic.MiniCard;
+import structures.basic.Position;
+import structures.basic.Tile;
+import structures.basic.Unit;
+import structures.basic.UnitAnimation;
+import structures.basic.UnitAnimationSet;
+
+/**
+ * Build step that compiles the JSON configuration files into a ConfigBundle:
+ *
+ *     sbt configBundle
+ *
+ * which runs this class with conf/gameconfs conf/gameconfs.bundle. Every JSON file below the
+ * source directory is included by what it contains: cards (cardname), units and avatars
+ * (animations), effects (animationTextures) and tiles (tileTextures). Other files, e.g.
+ * grid.json, are left out and keep being read as JSON.
+ */
+public class ConfigBundleCompiler {
+
+	private final List<String> strings = new ArrayList<String>();
+	private final Map<String,Integer> stringIndex = new HashMap<String,Integer>();
+
+	private final List<String> files = new ArrayList<String>();
+	private final List<Integer> kinds = new ArrayList<Integer>();
+	private final List<byte[]> records = new ArrayList<byte[]>();
+
+	public static void main(String[] args) throws Exception {
+		String sourceDir = args.length>0 ? args[0] : "conf/gameconfs";
+		String bundleFile = args.length>1 ? args[1] : "conf/gameconfs.bundle";
+
+		ConfigBundle.uninstall(); // always compile from the JSON files
+		ConfigBundleCompiler compiler = new ConfigBundleCompiler();
+		List<String> skipped = compiler.addAll(sourceDir);
+		long size = compiler.write(bundleFile);
+
+		System.out.println("Config bundle "+bundleFile+": "+compiler.files.size()+" files, "
+				+compiler.strings.size()+" strings, "+size+" bytes");
+		for (String file : skipped) System.out.println("  not bundled: "+file);
+	}
+
+	/**
+	 * Adds every JSON configuration file below sourceDir.
+	 * @param sourceDir
+	 * @return the files that were not added because they are not a card, unit, effect or tile
+	 * @throws Exception if a file cannot be parsed
+	 */
+	public List<String> addAll(String sourceDir) throws Exception {
+		List<String> jsonFiles;
+		try (Stream<Path> paths = Files.walk(Paths.get(sourceDir))) {
+			jsonFiles = paths.filter(p -> p.toString().endsWith(".json"))
+					.map(p -> ConfigBundle.key(p.toString()))
+					.sorted()
+					.collect(Collectors.toList());
+		}
+
+		List<String> skipped = new ArrayList<String>();
+		for (String file : jsonFiles) {
+			if (!add(file)) skipped.add(file);
+		}
+		return skipped;
+	}
+
+	/**
+	 * @param configFile
+	 * @return false if the file is not a card, unit, effect or tile
+	 * @throws Exception if the file cannot be parsed
+	 */
+	public boolean add(String configFile) throws Exception {
+		JsonNode json = BasicObjectBuilders.mapper.readTree(new File(configFile));
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		DataOutputStream out = new DataOutputStream(bytes);
+
+		int kind;
+		if (json.has("cardname")) {
+			kind = ConfigBundle.CARD;
+			writeCard(out, BasicObjectBuilders.mapper.treeToValue(json, Card.class));
+		} else if (json.has("animations")) {
+			kind = ConfigBundle.UNIT;
+			writeUnit(out, BasicObjectBuilders.parseUnitJson(configFile));
+		} else if (json.has("animationTextures")) {
+			kind = ConfigBundle.EFFECT;
+			writeEffect(out, BasicObjectBuilders.mapper.treeToValue(json, EffectAnimation.class));
+		} else if (json.has("tileTextures")) {
+			kind = ConfigBundle.TILE;
+			writeTile(out, BasicObjectBuilders.mapper.treeToValue(json, Tile.class));
+		} else {
+			return false;
+		}
+
+		out.flush();
+		files.add(ConfigBundle.key(configFile));
+		kinds.add(kind);
+		records.add(bytes.toByteArray());
+		return true;
+	}
+
+	/**
+	 * Writes the bundle (to a temporary file first, so a running server never maps a half-written one).
+	 * @param bundleFile
+	 * @return the size of the bundle in bytes
+	 * @throws IOException
+	 */
+	public long write(String bundleFile) throws IOException {
+		for (String file : files) intern(file);
+
+		// string table
+		ByteArrayOutputStream stringBytes = new ByteArrayOutputStream();
+		int[] offsets = new int[strings.size()+1];
+		for (int i = 0; i < strings.size(); i++) {
+			offsets[i] = stringBytes.size();
+			byte[] utf8 = strings.get(i).getBytes(StandardCharsets.UTF_8);
+			stringBytes.write(utf8, 0, utf8.length);
+		}
+		offsets[strings.size()] = stringBytes.size();
+
+		int headerSize = 12+4*offsets.length+stringBytes.size()+4+12*files.size();
+
+		File target = new File(bundleFile);
+		File temp = new File(bundleFile+".tmp");
+		try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(temp)))) {
+			out.writeInt(ConfigBundle.MAGIC);
+			out.writeInt(ConfigBundle.FORMAT);
+			out.writeInt(strings.size());
+			for (int offset : offsets) out.writeInt(offset);
+			stringBytes.writeTo(out);
+
+			out.writeInt(files.size());
+			int position = headerSize;
+			for (int i = 0; i < files.size(); i++) {
+				out.writeInt(stringIndex.get(files.get(i)));
+				out.writeInt(kinds.get(i));
+				out.writeInt(position);
+				position += records.get(i).length;
+			}
+			for (byte[] record : records) out.write(record);
+		}
+		Files.move(temp.toPath(), target.toPath(), StandardCopyOption.REPLACE_EXISTING);
+		return target.length();
+	}
+
+	// ----- record layouts, read back by ConfigBundle -----
+
+	private void writeCard(DataOutputStream out, Card card) throws IOException {
+		out.writeInt(card.getId());
+		writeString(out, card.getCardname());
+		out.writeInt(card.getManacost());
+		out.writeBoolean(card.getIsCreature());
+		writeString(out, card.getUnitConfig());
+
+		MiniCard mini = card.getMiniCard();
+		out.writeBoolean(mini!=null);
+		if (mini!=null) {
+			writeStrings(out, mini.getCardTextures());
+			writeStrings(out, mini.getAnimationFrames());
+			out.writeInt(mini.getFps());
+			out.writeInt(mini.getIndex());
+		}
+
+		BigCard big = card.getBigCard();
+		out.writeBoolean(big!=null);
+		if (big!=null) {
+			out.writeInt(big.getAttack());
+			out.writeInt(big.getHealth());
+			writeStrings(out, big.getRulesTextRows());
+			writeStrings(out, big.getCardTextures());
+		}
+	}
+
+	private void writeUnit(DataOutputStream out, Unit unit) throws IOException {
+		out.writeInt(unit.getId());
+		writeString(out, unit.getAnimation()!=null ? unit.getAnimation().name() : null);
+
+		Position p = unit.getPosition();
+		out.writeBoolean(p!=null);
+		if (p!=null) {
+			out.writeInt(p.getXpos());
+			out.writeInt(p.getYpos());
+			out.writeInt(p.getTilex());
+			out.writeInt(p.getTiley());
+		}
+
+		UnitAnimationSet animations = unit.getAnimations();
+		out.writeBoolean(animations!=null);
+		if (animations!=null) {
+			writeStrings(out, animations.getAllFrames());
+			writeString(out, animations.getFrameDIR());
+			writeAnimation(out, animations.getIdle());
+			writeAnimation(out, animations.getDeath());
+			writeAnimation(out, animations.getAttack());
+			writeAnimation(out, animations.getMove());
+			writeAnimation(out, animations.getChannel());
+			writeAnimation(out, animations.getHit());
+		}
+
+		writeCorrection(out, unit.getCorrection());
+	}
+
+	private void writeEffect(DataOutputStream out, EffectAnimation effect) throws IOException {
+		writeStrings(out, effect.getAnimationTextures());
+		writeCorrection(out, effect.getCorrection());
+		out.writeInt(effect.getFps());
+	}
+
+	private void writeTile(DataOutputStream out, Tile tile) throws IOException {
+		writeStrings(out, tile.getTileTextures());
+		out.writeInt(tile.getXpos());
+		out.writeInt(tile.getYpos());
+		out.writeInt(tile.getWidth());
+		out.writeInt(tile.getHeight());
+		out.writeInt(tile.getTilex());
+		out.writeInt(tile.getTiley());
+	}
+
+	private void writeAnimation(DataOutputStream out, UnitAnimation animation) throws IOException {
+		out.writeBoolean(animation!=null);
+		if (animation==null) return;
+		int[] indices = animation.getFrameStartEndIndices();
+		out.writeInt(indices!=null ? indices.length : ConfigBundle.NULL);
+		if (indices!=null) for (int index : indices) out.writeInt(index);
+		out.writeInt(animation.getFps());
+		out.writeBoolean(animation.isLoop());
+	}
+
+	private void writeCorrection(DataOutputStream out, ImageCorrection correction) throws IOException {
+		out.writeBoolean(correction!=null);
+		if (correction==null) return;
+		out.writeDouble(correction.getImgWidth());
+		out.writeDouble(correction.getImgHeight());
+		out.writeDouble(correction.getSpriteTopLeftX());
+		out.writeDouble(correction.getSpriteTopLeftY());
+		out.writeDouble(correction.getOffsetX());
+		out.writeDouble(correction.getOffsetY());
+		out.writeDouble(correction.getScale());
+		out.writeBoolean(correction.isReflected());
+	}
+
+	private void writeStrings(DataOutputStream out, String[] values) throws IOException {
+		out.writeInt(values!=null ? values.length : ConfigBundle.NULL);
+		if (values!=null) for (String value : values) writeString(out, value);
+	}
+
+	private void writeStrings(DataOutputStream out, Collection<String> values) throws IOException {
+		out.writeInt(values!=null ? values.size() : ConfigBundle.NULL);
+		if (values!=null) for (String value : values) writeString(out, value);
+	}
+
+	private void writeString(DataOutputStream out, String value) throws IOException {
+		out.writeInt(value!=null ? intern(value) : ConfigBundle.NULL);
+	}
+
+	private int intern(String value) {
+		Integer index = stringIndex.get(value);
+		if (index==null) {
+			index = strings.size();
+			strings.add(value);
+			stringIndex.put(value, index);
+		}
+		return index;
+	}
+}
@@ -0,0 +1,159 @@
+package utils;
+
+import java.io.IOException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Watches the card, unit, deck and avatar configuration directories and publishes a new CardCatalog
+ * version when files change, so balance changes do not need a restart.
+ *
+ * Runs on its own daemon thread: changes are collected until the directories have been quiet
+ * for QUIET_MILLIS (editors write files in several steps), then the catalog is rebuilt from
+ * the changed files and published only if it has no problems the current version did not
+ * have. Games keep the catalog they started with; nothing on the request path waits for a
+ * reload.
+ */
+public class ConfigReloader implements Runnable {
+
+	private static final Logger log = LoggerFactory.getLogger(ConfigReloader.class);
+
+	public static final String AVATARS_DIR = "conf/gameconfs/avatars";
+
+	private static final long QUIET_MILLIS = 250;
+
+	private final WatchService watcher;
+	private final Thread thread;
+	private volatile boolean running = true;
+
+	private ConfigReloader(String... dirs) throws IOException {
+		watcher = FileSystems.getDefault().newWatchService();
+		for (String dir : dirs) {
+			Paths.get(dir).register(watcher, StandardWatchEventKinds.ENTRY_CREATE,
+					StandardWatchEventKinds.ENTRY_MODIFY, StandardWatchEventKinds.ENTRY_DELETE);
+		}
+		thread = new Thread(this, "config-reloader");
+		thread.setDaemon(true);
+	}
+
+	/**
+	 * Starts watching the directories of the current catalog (and the avatars).
+	 * @return
+	 * @throws IOException if a directory cannot be watched
+	 */
+	public static ConfigReloader start() throws IOException {
+		CardCatalog catalog = CardCatalog.get();
+		ConfigReloader reloader = new ConfigReloader(catalog.getCardsDir(), catalog.getUnitsDir(), catalog.getDecksDir(), AVATARS_DIR);
+		reloader.thread.start();
+		return reloader;
+	}
+
+	public void stop() {
+		running = false;
+		thread.interrupt();
+		try {
+			watcher.close();
+		} catch (IOException e) {
+			// closing anyway
+		}
+	}
+
+	@Override
+	public void run() {
+		try {
+			while (running) {
+				Set<String> changed = new LinkedHashSet<String>();
+				collect(watcher.take(), changed);
+
+				// wait until nothing changed for QUIET_MILLIS
+				WatchKey key;
+				while ((key = watcher.poll(QUIET_MILLIS, TimeUnit.MILLISECONDS)) != null) {
+					collect(key, changed);
+				}
+
+				if (!changed.isEmpty()) reload(changed);
+			}
+		} catch (InterruptedException e) {
+			// stopped
+		} catch (Exception e) {
+			if (running) log.error("Config reloader stopped", e);
+		}
+	}
+
+	private void collect(WatchKey key, Set<String> changed) {
+		Path dir = (Path) key.watchable();
+		for (WatchEvent<?> event : key.pollEvents()) {
+			if (event.kind() == StandardWatchEventKinds.OVERFLOW) continue;
+			Path file = dir.resolve((Path) event.context());
+			if (file.toString().endsWith(".json")) changed.add(file.toString().replace('\\', '/'));
+		}
+		key.reset();
+	}
+
+	/**
+	 * Builds the next catalog version from the changed files and publishes it if it is valid.
+	 * @param changed
+	 * @return true if a new version was published
+	 */
+	public static boolean reload(Set<String> changed) {
+		// the bundle was compiled from the old files, the new version is read from JSON
+		ConfigBundle bundle = ConfigBundle.installed();
+		if (bundle!=null) ConfigBundle.uninstall();
+
+		CardCatalog current = CardCatalog.get();
+		CardCatalog next = current.reload(changed);
+
+		List<String> introduced = new ArrayList<String>(next.getProblems());
+		introduced.removeAll(current.getProblems());
+		introduced.addAll(checkUnitFiles(changed, current.getUnitsDir()));
+		if (!introduced.isEmpty()) {
+			for (String problem : introduced) log.warn("Config reload: {}", problem);
+			log.warn("Config reload rejected, new games keep catalog version {}", current.getVersion());
+			// nothing changed for new games, so they keep reading the bundle too
+			if (bundle!=null) ConfigBundle.install(bundle);
+			return false;
+		}
+		if (bundle!=null) log.info("Config reload: config bundle {} no longer used", bundle.getFile());
+
+		// units that no card summons (avatars, tokens) are cached by BasicObjectBuilders
+		for (String file : changed) BasicObjectBuilders.forgetUnitPrototype(file);
+
+		CardCatalog.publish(next);
+		log.info("Config reload: catalog version {} published ({} files changed)", next.getVersion(), changed.size());
+		return true;
+	}
+
+	/**
+	 * The catalog only parses units that a card summons, so every changed unit and avatar file
+	 * is parsed here as well; a broken avatar would otherwise replace the good cached prototype
+	 * and break the next new game.
+	 * @param changed
+	 * @param unitsDir
+	 * @return a problem for each changed unit file that cannot be parsed (or was deleted)
+	 */
+	static List<String> checkUnitFiles(Set<String> changed, String unitsDir) {
+		List<String> problems = new ArrayList<String>();
+		for (String file : changed) {
+			if (!file.startsWith(unitsDir+"/") && !file.startsWith(AVATARS_DIR+"/")) continue;
+			try {
+				BasicObjectBuilders.parseUnitJson(file);
+			} catch (Exception e) {
+				problems.add(file+": unreadable ("+e.getMessage()+")");
+			}
+		}
+		return problems;
+	}
+}
@@ -0,0 +1,122 @@
+package utils;
+
+import java.util.Arrays;
+
+/**
+ * A hash map from int keys to objects that stores the keys as primitives (open addressing with
+ * linear probing), so put/get/remove do not box the key. Meant for small id indexes such as
+ * GameState's units by id; not thread-safe, and null values are not allowed.
+ *
+ * @param <V> value type
+ */
+public class IntObjectMap<V> {
+
+	private static final int MIN_CAPACITY = 16; // power of two
+
+	private int[] keys;
+	private Object[] values; // null = free slot
+	private int size;
+
+	public IntObjectMap() {
+		keys = new int[MIN_CAPACITY];
+		values = new Object[MIN_CAPACITY];
+	}
+
+	public int size() {
+		return size;
+	}
+
+	public boolean isEmpty() {
+		return size==0;
+	}
+
+	public boolean containsKey(int key) {
+		return values[slot(key)]!=null;
+	}
+
+	/**
+	 * @param key
+	 * @return the value of the key, or null
+	 */
+	@SuppressWarnings("unchecked")
+	public V get(int key) {
+		return (V) values[slot(key)];
+	}
+
+	/**
+	 * @param key
+	 * @param value not null
+	 * @return the previous value of the key, or null
+	 */
+	@SuppressWarnings("unchecked")
+	public V put(int key, V value) {
+		if (value==null) throw new IllegalArgumentException("IntObjectMap does not store null values");
+
+		int slot = slot(key);
+		V previous = (V) values[slot];
+		keys[slot] = key;
+		values[slot] = value;
+		if (previous==null && ++size*2>keys.length) resize(keys.length*2);
+		return previous;
+	}
+
+	/**
+	 * @param key
+	 * @return the removed value, or null if the key was not in the map
+	 */
+	@SuppressWarnings("unchecked")
+	public V remove(int key) {
+		int slot = slot(key);
+		V previous = (V) values[slot];
+		if (previous==null) return null;
+
+		values[slot] = null;
+		size--;
+
+		// shift back the entries of the probe run after the freed slot, so lookups do not stop early
+		int mask = keys.length-1;
+		int free = slot;
+		for (int i = (free+1)&mask; values[i]!=null; i = (i+1)&mask) {
+			int home = hash(keys[i])&mask;
+			// move the entry unless its home lies cyclically in (free, i]
+			if (free<=i ? (home<=free || home>i) : (home<=free && home>i)) {
+				keys[free] = keys[i];
+				values[free] = values[i];
+				values[i] = null;
+				free = i;
+			}
+		}
+		return previous;
+	}
+
+	public void clear() {
+		Arrays.fill(values, null);
+		size = 0;
+	}
+
+	// slot holding the key, or the free slot where it would go
+	private int slot(int key) {
+		int mask = keys.length-1;
+		int i = hash(key)&mask;
+		while (values[i]!=null && keys[i]!=key) i = (i+1)&mask;
+		return i;
+	}
+
+	private void resize(int capacity) {
+		int[] oldKeys = keys;
+		Object[] oldValues = values;
+		keys = new int[capacity];
+		values = new Object[capacity];
+		for (int i = 0; i < oldKeys.length; i++) {
+			if (oldValues[i]==null) continue;
+			int slot = slot(oldKeys[i]);
+			keys[slot] = oldKeys[i];
+			values[slot] = oldValues[i];
+		}
+	}
+
+	private static int hash(int key) {
+		int h = key*0x9E3779B9; // spread consecutive ids over the table
+		return h^(h>>>16);
+	}
+}
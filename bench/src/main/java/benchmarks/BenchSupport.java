@@ -0,0 +1,45 @@
+package benchmarks;
+
+import org.openjdk.jmh.infra.Blackhole;
+
+import akka.actor.ActorRef;
+import akka.actor.ActorSystem;
+import commands.BasicCommands;
+import events.Initalize;
+import play.libs.Json;
+import structures.GameState;
+
+/**
+ * Shared fixtures for the benchmarks.
+ *
+ * Commands are routed through BasicCommands.altTell into a Blackhole (the "null sink"),
+ * so the cost of building each message is measured but nothing is sent anywhere.
+ * Some services skip work when the websocket ref is null, so an ActorSystem is started
+ * only to hand them a real (dead letters) ActorRef; nothing is ever told to it.
+ */
+final class BenchSupport {
+
+    private BenchSupport() {}
+
+    static void sinkCommandsInto(Blackhole bh) {
+        BasicCommands.altTell = bh::consume;
+    }
+
+    static ActorSystem startActorSystem() {
+        return ActorSystem.create("bench");
+    }
+
+    static ActorRef deadLetters(ActorSystem system) {
+        return system.deadLetters();
+    }
+
+    /**
+     * A freshly initialised game (board, avatars, decks, starting hands, P1 to move).
+     * Note initializeGame contains the UI pacing sleeps of the real game.
+     */
+    static GameState newGame(ActorRef out) {
+        GameState gameState = new GameState();
+        new Initalize().processEvent(out, gameState, Json.newObject());
+        return gameState;
+    }
+}
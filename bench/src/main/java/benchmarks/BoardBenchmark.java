@@ -0,0 +1,76 @@
+package benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import structures.Board;
+import structures.UnitEntity;
+import structures.basic.Position;
+
+/**
+ * Board occupancy primitives: lookup, put/remove and move.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BoardBenchmark {
+
+    private Board board;
+    private UnitEntity unit;
+    private Position a;
+    private Position b;
+    private Position empty;
+
+    @Setup
+    public void setup() {
+        board = new Board(9, 5);
+        unit = new UnitEntity();
+        unit.setOwnerPlayerId(1);
+        a = new Position(0, 0, 2, 3);
+        b = new Position(0, 0, 3, 3);
+        empty = new Position(0, 0, 7, 1);
+        board.putUnit(a, unit);
+
+        // a few more units so lookups do not hit an almost empty map
+        for (int x = 5; x <= 8; x++) {
+            UnitEntity u = new UnitEntity();
+            u.setOwnerPlayerId(2);
+            board.putUnit(new Position(0, 0, x, 4), u);
+        }
+    }
+
+    @Benchmark
+    public Object getUnitAt() {
+        return board.getUnitAt(a);
+    }
+
+    @Benchmark
+    public boolean isOccupiedEmpty() {
+        return board.isOccupied(empty);
+    }
+
+    @Benchmark
+    public void putThenRemove() {
+        board.putUnit(empty, unit);
+        board.removeUnit(empty);
+    }
+
+    @Benchmark
+    public void moveThereAndBack() {
+        board.moveUnit(a, b);
+        board.moveUnit(b, a);
+    }
+}
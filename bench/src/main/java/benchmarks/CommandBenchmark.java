@@ -0,0 +1,80 @@
+package benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import commands.BasicCommands;
+import structures.basic.Card;
+import structures.basic.EffectAnimation;
+import structures.basic.Player;
+import structures.basic.Tile;
+import structures.basic.Unit;
+import structures.basic.UnitAnimationType;
+import utils.BasicObjectBuilders;
+import utils.StaticConfFiles;
+
+/**
+ * Cost of building (and serializing into the ObjectNode) one UI command, per command type.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CommandBenchmark {
+
+    @Param({"drawTile", "drawUnit", "setUnitHealth", "setUnitAttack", "moveUnitToTile",
+            "playUnitAnimation", "deleteUnit", "setPlayer1Health", "setPlayer1Mana",
+            "drawCard", "deleteCard", "playEffectAnimation", "addPlayer1Notification"})
+    public String command;
+
+    private Tile tile;
+    private Unit unit;
+    private Card card;
+    private Player player;
+    private EffectAnimation effect;
+
+    @Setup
+    public void setup(Blackhole bh) {
+        BenchSupport.sinkCommandsInto(bh);
+        tile = BasicObjectBuilders.loadTile(3, 2);
+        unit = BasicObjectBuilders.loadUnit(StaticConfFiles.humanAvatar, 1, Unit.class);
+        unit.setPositionByTile(tile);
+        card = BasicObjectBuilders.loadCard("conf/gameconfs/cards/1_3_c_u_gloom_chaser.json", 1, Card.class);
+        player = new Player(20, 5);
+        effect = BasicObjectBuilders.loadEffect(StaticConfFiles.f1_summon);
+    }
+
+    @Benchmark
+    public void send() {
+        switch (command) {
+            case "drawTile": BasicCommands.drawTile(null, tile, 1); break;
+            case "drawUnit": BasicCommands.drawUnit(null, unit, tile); break;
+            case "setUnitHealth": BasicCommands.setUnitHealth(null, unit, 7); break;
+            case "setUnitAttack": BasicCommands.setUnitAttack(null, unit, 3); break;
+            case "moveUnitToTile": BasicCommands.moveUnitToTile(null, unit, tile); break;
+            case "playUnitAnimation": BasicCommands.playUnitAnimation(null, unit, UnitAnimationType.attack); break;
+            case "deleteUnit": BasicCommands.deleteUnit(null, unit); break;
+            case "setPlayer1Health": BasicCommands.setPlayer1Health(null, player); break;
+            case "setPlayer1Mana": BasicCommands.setPlayer1Mana(null, player); break;
+            case "drawCard": BasicCommands.drawCard(null, card, 1, 0); break;
+            case "deleteCard": BasicCommands.deleteCard(null, 1); break;
+            case "playEffectAnimation": BasicCommands.playEffectAnimation(null, effect, tile); break;
+            case "addPlayer1Notification": BasicCommands.addPlayer1Notification(null, "Your turn", 2); break;
+            default: throw new IllegalArgumentException(command);
+        }
+    }
+}
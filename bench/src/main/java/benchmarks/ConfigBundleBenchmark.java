@@ -0,0 +1,73 @@
+package benchmarks;
+
+import java.io.File;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import utils.BasicObjectBuilders;
+import utils.CardCatalog;
+import utils.ConfigBundle;
+import utils.ConfigBundleCompiler;
+
+/**
+ * Boot-time config loading: building the card catalog (every card and creature unit) from the
+ * JSON files vs from a compiled ConfigBundle, with the unit prototype cache emptied each time.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ConfigBundleBenchmark {
+
+    private File bundleFile;
+    private ConfigBundle bundle;
+
+    @Setup(Level.Trial)
+    public void compileBundle() throws Exception {
+        bundleFile = File.createTempFile("gameconfs", ".bundle");
+        ConfigBundleCompiler.main(new String[] {"conf/gameconfs", bundleFile.getPath()});
+        bundle = ConfigBundle.open(bundleFile.getPath());
+    }
+
+    @TearDown(Level.Trial)
+    public void deleteBundle() {
+        ConfigBundle.uninstall();
+        bundleFile.delete();
+    }
+
+    @Benchmark
+    public CardCatalog catalogFromJson() {
+        ConfigBundle.uninstall();
+        BasicObjectBuilders.clearUnitPrototypes();
+        return CardCatalog.load(CardCatalog.CARDS_DIR, CardCatalog.UNITS_DIR);
+    }
+
+    @Benchmark
+    public CardCatalog catalogFromBundle() {
+        ConfigBundle.install(bundle);
+        BasicObjectBuilders.clearUnitPrototypes();
+        return CardCatalog.load(CardCatalog.CARDS_DIR, CardCatalog.UNITS_DIR);
+    }
+
+    /**
+     * Opening (mapping) the bundle and reading its index, as done once at boot.
+     */
+    @Benchmark
+    public ConfigBundle openBundle() throws Exception {
+        return ConfigBundle.open(bundleFile.getPath());
+    }
+}
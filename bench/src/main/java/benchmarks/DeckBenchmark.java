@@ -0,0 +1,48 @@
+package benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import structures.DeckFactory;
+import structures.GameState;
+
+/**
+ * Game creation as far as it does not touch the front-end: a new GameState and both decks,
+ * on one thread and on 8 threads at once (concurrent game starts share the card catalog).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DeckBenchmark {
+
+    @Benchmark
+    public void newGameDecks(Blackhole bh) {
+        buildDecks(bh);
+    }
+
+    @Benchmark
+    @Threads(8)
+    public void newGameDecksConcurrent(Blackhole bh) {
+        buildDecks(bh);
+    }
+
+    private static void buildDecks(Blackhole bh) {
+        GameState gameState = new GameState();
+        bh.consume(DeckFactory.buildHumanDeck(gameState));
+        bh.consume(DeckFactory.buildAIDeck(gameState));
+    }
+}
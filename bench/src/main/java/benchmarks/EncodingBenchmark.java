@@ -0,0 +1,142 @@
+package benchmarks;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+
+import akka.actor.ActorRef;
+import akka.actor.ActorSystem;
+import commands.BasicCommands;
+import events.CardClicked;
+import events.EndTurnClicked;
+import events.TileClicked;
+import play.libs.Json;
+import structures.GameState;
+
+/**
+ * Encode / decode cost of the command protocol per wire encoding (JSON, Smile, CBOR), over
+ * the commands of a recorded game. Each invocation encodes or decodes the whole recording.
+ * The game websocket itself only speaks JSON; Smile and CBOR are measured here to see whether
+ * a binary encoding would be worth a client decoder.
+ *
+ * By default the recording is made in setup by playing a short scripted game (initialise,
+ * play a card, three end turns with AI turns). -p traffic=path/to/commands.ndjson replays a
+ * capture instead (one command per line). The total payload size of each encoding is printed
+ * at setup.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EncodingBenchmark {
+
+    @Param({"JSON", "SMILE", "CBOR"})
+    public String encoding;
+
+    @Param({"scripted"})
+    public String traffic;
+
+    private ObjectMapper wire;
+    private List<JsonNode> commands;
+    private List<byte[]> frames;
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        wire = mapperFor(encoding);
+        commands = "scripted".equals(traffic) ? recordScriptedGame() : readCapture(traffic);
+
+        frames = new ArrayList<>(commands.size());
+        long bytes = 0;
+        for (JsonNode command : commands) {
+            byte[] frame = wire.writeValueAsBytes(command);
+            frames.add(frame);
+            bytes += frame.length;
+        }
+        System.out.println();
+        System.out.println(encoding + ": " + commands.size() + " commands, " + bytes + " bytes");
+    }
+
+    private static ObjectMapper mapperFor(String encoding) {
+        switch (encoding) {
+            case "SMILE": return new ObjectMapper(new SmileFactory());
+            case "CBOR": return new ObjectMapper(new CBORFactory());
+            default: return new ObjectMapper();
+        }
+    }
+
+    private static List<JsonNode> recordScriptedGame() {
+        List<JsonNode> recorded = new ArrayList<>();
+        BasicCommands.altTell = recorded::add;
+
+        ActorSystem system = BenchSupport.startActorSystem();
+        try {
+            ActorRef out = BenchSupport.deadLetters(system);
+            GameState gameState = BenchSupport.newGame(out);
+
+            ObjectNode card = Json.newObject();
+            card.put("position", 1);
+            new CardClicked().processEvent(out, gameState, card);
+
+            ObjectNode tile = Json.newObject();
+            tile.put("tilex", 3);
+            tile.put("tiley", 3);
+            new TileClicked().processEvent(out, gameState, tile);
+
+            for (int i = 0; i < 3; i++) {
+                new EndTurnClicked().processEvent(out, gameState, Json.newObject());
+            }
+        } finally {
+            BasicCommands.altTell = null;
+            system.terminate();
+        }
+        return recorded;
+    }
+
+    private static List<JsonNode> readCapture(String path) throws IOException {
+        ObjectMapper mapper = new ObjectMapper();
+        List<JsonNode> recorded = new ArrayList<>();
+        for (String line : Files.readAllLines(Paths.get(path))) {
+            if (!line.trim().isEmpty()) recorded.add(mapper.readTree(line));
+        }
+        return recorded;
+    }
+
+    @Benchmark
+    public void encode(Blackhole bh) throws Exception {
+        for (JsonNode command : commands) {
+            bh.consume(wire.writeValueAsBytes(command));
+        }
+    }
+
+    @Benchmark
+    public void decode(Blackhole bh) throws Exception {
+        for (byte[] frame : frames) {
+            bh.consume(wire.readTree(frame));
+        }
+    }
+}
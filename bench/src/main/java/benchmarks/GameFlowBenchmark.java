@@ -0,0 +1,81 @@
+package benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import ai.AIDecisionEngine;
+import akka.actor.ActorRef;
+import akka.actor.ActorSystem;
+import services.GameInitializationService;
+import structures.GameState;
+
+/**
+ * Whole-flow benchmarks: a full game initialisation and a full AI turn, both into the
+ * null command sink. These paths contain the UI pacing Thread.sleep calls of the real
+ * game, so they are measured single-shot; compare them across releases rather than
+ * reading them as CPU time.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 10)
+@Fork(1)
+public class GameFlowBenchmark {
+
+    private ActorSystem system;
+    private ActorRef out;
+
+    @Setup(Level.Trial)
+    public void setup(Blackhole bh) {
+        BenchSupport.sinkCommandsInto(bh);
+        system = BenchSupport.startActorSystem();
+        out = BenchSupport.deadLetters(system);
+    }
+
+    /**
+     * A game where P1 has just ended their first turn, rebuilt before every AI turn.
+     */
+    @State(Scope.Thread)
+    public static class AiTurnState {
+        GameState gameState;
+
+        @Setup(Level.Invocation)
+        public void prepare(GameFlowBenchmark bench) {
+            gameState = BenchSupport.newGame(bench.out);
+            gameState.setCurrentPlayerId(2);
+            gameState.beginTurn();
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        system.terminate();
+    }
+
+    @Benchmark
+    public GameState initializeGame() {
+        GameState gameState = new GameState();
+        new GameInitializationService().initializeGame(out, gameState);
+        return gameState;
+    }
+
+    @Benchmark
+    public GameState aiTurn(AiTurnState s) {
+        AIDecisionEngine.playTurn(out, s.gameState);
+        return s.gameState;
+    }
+}
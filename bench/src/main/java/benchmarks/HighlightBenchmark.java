@@ -0,0 +1,90 @@
+package benchmarks;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import akka.actor.ActorRef;
+import akka.actor.ActorSystem;
+import services.CommandDispatcher;
+import services.GameRulesEngine;
+import services.MovementService;
+import services.VisualFeedbackManager;
+import structures.GameState;
+import structures.UnitEntity;
+import structures.basic.Position;
+
+/**
+ * VisualFeedbackManager highlight computation, including building the drawTile commands.
+ * Each benchmark clears the highlights it drew so the state is identical every call.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class HighlightBenchmark {
+
+    private ActorSystem system;
+    private ActorRef out;
+    private GameState gameState;
+    private UnitEntity avatar;
+    private List<Position> moves;
+    private VisualFeedbackManager vfm;
+    private GameRulesEngine rules;
+
+    @Setup(Level.Trial)
+    public void setup(Blackhole bh) {
+        BenchSupport.sinkCommandsInto(bh);
+        system = BenchSupport.startActorSystem();
+        out = BenchSupport.deadLetters(system);
+        gameState = BenchSupport.newGame(out);
+        avatar = gameState.getP1Avatar();
+        moves = new MovementService().computeDefaultMoves(gameState, avatar.getPosition());
+        vfm = new VisualFeedbackManager(new CommandDispatcher());
+        rules = new GameRulesEngine();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        system.terminate();
+    }
+
+    @Benchmark
+    public void selectUnit() {
+        vfm.highlightMoveTiles(out, gameState, moves);
+        vfm.highlightCenterTile(out, gameState, avatar.getPosition());
+        vfm.highlightAttackTargets(out, gameState, avatar);
+        vfm.clearHighlights(out, gameState);
+    }
+
+    /**
+     * The tile clicks of selecting the avatar and deselecting it on an empty tile, as the
+     * front-end sends them (run with -prof gc to see the allocation per click pair).
+     */
+    @Benchmark
+    public void clickSelectDeselect() {
+        rules.onTileClicked(out, gameState, avatar.getPosition().getTilex(), avatar.getPosition().getTiley());
+        rules.onTileClicked(out, gameState, 9, 1);
+    }
+
+    @Benchmark
+    public void summonTiles() {
+        vfm.highlightSummonTiles(out, gameState);
+        vfm.clearHighlights(out, gameState);
+    }
+}
@@ -0,0 +1,95 @@
+package benchmarks;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import events.EventType;
+import events.InboundEvent;
+import events.InboundEventDecoder;
+
+/**
+ * Decoding and dispatching one inbound front-end event, as the GameActor does before the
+ * event processor runs. "tree" is the previous path (readTree, lower-cased messagetype,
+ * HashMap lookup, field reads on the tree), "streaming" is InboundEventDecoder plus the
+ * switch on EventType.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class InboundBenchmark {
+
+    @Param({"tileclicked", "cardclicked", "heartbeat"})
+    public String event;
+
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final Map<String, Integer> legacyProcessors = new HashMap<>();
+    private String frame;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        String[] types = {"initalize", "heartbeat", "unitmoving", "unitstopped",
+                "tileclicked", "cardclicked", "endturnclicked", "otherclicked"};
+        for (int i = 0; i < types.length; i++) legacyProcessors.put(types[i], i);
+
+        switch (event) {
+            case "tileclicked":
+                frame = "{\"messagetype\":\"tileclicked\",\"tilex\":4,\"tiley\":2}";
+                break;
+            case "cardclicked":
+                frame = "{\"messagetype\":\"cardclicked\",\"position\":3}";
+                break;
+            default:
+                frame = "{\"messagetype\":\"" + event + "\"}";
+        }
+    }
+
+    @Benchmark
+    public int tree() throws Exception {
+        JsonNode message = mapper.readTree(frame);
+        String key = message.get("messagetype").asText().toLowerCase();
+        Integer processor = legacyProcessors.get(key);
+        if (processor == null) return -1;
+        switch (key) {
+            case "tileclicked":
+                return processor + message.get("tilex").asInt() + message.get("tiley").asInt();
+            case "cardclicked":
+                return processor + message.get("position").asInt();
+            default:
+                return processor;
+        }
+    }
+
+    @Benchmark
+    public int streaming() {
+        InboundEvent message = InboundEventDecoder.decode(frame);
+        EventType type = message.getType();
+        switch (type) {
+            case TILE_CLICKED:
+                return type.ordinal() + message.getTilex() + message.getTiley();
+            case CARD_CLICKED:
+                return type.ordinal() + message.getPosition();
+            default:
+                return type.ordinal();
+        }
+    }
+}
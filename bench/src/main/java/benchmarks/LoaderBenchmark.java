@@ -0,0 +1,64 @@
+package benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import structures.UnitEntity;
+import structures.basic.Card;
+import structures.basic.Tile;
+import structures.basic.Unit;
+import utils.BasicObjectBuilders;
+
+/**
+ * Config loading as done on every summon / deck build / tile draw.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LoaderBenchmark {
+
+    private static final String UNIT = "conf/gameconfs/units/gloom_chaser.json";
+    private static final String CREATURE_CARD = "conf/gameconfs/cards/1_3_c_u_gloom_chaser.json";
+    private static final String SPELL_CARD = "conf/gameconfs/cards/1_8_c_s_dark_terminus.json";
+
+    @Benchmark
+    public Unit loadUnit() {
+        return BasicObjectBuilders.loadUnit(UNIT, 3000, UnitEntity.class);
+    }
+
+    /**
+     * loadUnit with the prototype cache emptied first, i.e. parsing the config file.
+     */
+    @Benchmark
+    public Unit loadUnitCold() {
+        BasicObjectBuilders.clearUnitPrototypes();
+        return BasicObjectBuilders.loadUnit(UNIT, 3000, UnitEntity.class);
+    }
+
+    @Benchmark
+    public Card loadCreatureCard() {
+        return BasicObjectBuilders.loadCard(CREATURE_CARD, 1, Card.class);
+    }
+
+    @Benchmark
+    public Card loadSpellCard() {
+        return BasicObjectBuilders.loadCard(SPELL_CARD, 1, Card.class);
+    }
+
+    @Benchmark
+    public Tile loadTile() {
+        return BasicObjectBuilders.loadTile(3, 2);
+    }
+}
@@ -0,0 +1,60 @@
+package benchmarks;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import akka.actor.ActorSystem;
+import services.MovementService;
+import structures.GameState;
+import structures.basic.Position;
+
+/**
+ * MovementService.computeDefaultMoves for the human avatar on a freshly started game. The board
+ * does not change between calls, so this measures the cached path of Board.reachable plus
+ * building the position list.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MovementBenchmark {
+
+    private ActorSystem system;
+    private GameState gameState;
+    private Position from;
+    private final MovementService movementService = new MovementService();
+
+    @Setup(Level.Trial)
+    public void setup(Blackhole bh) {
+        BenchSupport.sinkCommandsInto(bh);
+        system = BenchSupport.startActorSystem();
+        gameState = BenchSupport.newGame(BenchSupport.deadLetters(system));
+        from = gameState.getP1Avatar().getPosition();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        system.terminate();
+    }
+
+    @Benchmark
+    public List<Position> computeDefaultMoves() {
+        return movementService.computeDefaultMoves(gameState, from);
+    }
+}
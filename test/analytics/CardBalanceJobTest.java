@@ -0,0 +1,153 @@
+package analytics;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Runs CardBalanceJob over small replay archive fixtures: tiny segments must give the same
+ * totals as a single sequential scan, and corrupt lines must not contribute any counts.
+ */
+public class CardBalanceJobTest {
+
+	private static final List<String> CARDS = Arrays.asList("1_1_c_u_bad_omen", "1_2_c_s_horn", "2_1_c_u_rock_pulveriser", "2_2_c_s_truestrike");
+
+	private Path dir;
+
+	@Before
+	public void setUp() throws IOException {
+		dir = Files.createTempDirectory("replays");
+	}
+
+	@After
+	public void tearDown() throws IOException {
+		try (DirectoryStream<Path> files = Files.newDirectoryStream(dir)) {
+			for (Path f : files) Files.delete(f);
+		}
+		Files.delete(dir);
+	}
+
+	/**
+	 * Counts of a two game archive, worked out by hand.
+	 */
+	@Test
+	public void countsPlaysDamageAndWins() throws IOException {
+		Path archive = write("small.ndjson",
+				"{\"game\":\"g1\",\"winner\":1,\"events\":["
+				+ "{\"t\":\"play\",\"p\":1,\"card\":\"1_1_c_u_bad_omen\",\"mana\":2,\"unit\":100},"
+				+ "{\"t\":\"dmg\",\"src\":100,\"amt\":3},"
+				+ "{\"t\":\"play\",\"p\":2,\"card\":\"conf/gameconfs/cards/2_2_c_s_truestrike.json\",\"mana\":1},"
+				+ "{\"t\":\"dmg\",\"card\":\"2_2_c_s_truestrike\",\"amt\":2},"
+				+ "{\"t\":\"play\",\"p\":1,\"card\":\"1_1_c_u_bad_omen\",\"mana\":2,\"unit\":101}]}",
+				"{\"game\":\"g2\",\"winner\":2,\"events\":["
+				+ "{\"t\":\"play\",\"p\":1,\"card\":\"1_1_c_u_bad_omen\",\"mana\":2,\"unit\":100},"
+				+ "{\"t\":\"dmg\",\"src\":100,\"amt\":1},"
+				+ "{\"t\":\"play\",\"p\":1,\"card\":\"unknown_card\",\"mana\":9}]}");
+
+		CardBalanceStats stats = new CardBalanceJob(CARDS).run(Collections.singletonList(archive));
+
+		assertEquals(2, stats.getGames());
+		assertArrayEquals(new long[]{3, 0, 0, 1}, stats.plays);
+		assertArrayEquals(new long[]{6, 0, 0, 1}, stats.manaSpent);
+		assertArrayEquals(new long[]{3, 0, 0, 0}, stats.unitsSummoned);
+		assertArrayEquals(new long[]{4, 0, 0, 2}, stats.damage);
+		assertArrayEquals(new long[]{2, 0, 0, 1}, stats.playerGames);
+		assertArrayEquals(new long[]{1, 0, 0, 0}, stats.wins);
+	}
+
+	/**
+	 * Splitting the files into segments far smaller than a line must count every game exactly
+	 * once, so the merged totals equal those of one sequential scan.
+	 */
+	@Test
+	public void segmentedScanMatchesSequentialScan() throws IOException {
+		Random random = new Random(5);
+		List<Path> files = new ArrayList<>();
+		for (int f = 0; f < 3; f++) {
+			String[] games = new String[200];
+			for (int g = 0; g < games.length; g++) games[g] = randomGame(random, "g"+f+"_"+g);
+			files.add(write("archive"+f+".ndjson", games));
+		}
+
+		CardBalanceStats sequential = new CardBalanceJob(CARDS, Long.MAX_VALUE).run(files);
+		assertEquals(600, sequential.getGames());
+		for (long segmentBytes : new long[]{7, 37, 256, 4096}) {
+			assertSameCounts(sequential, new CardBalanceJob(CARDS, segmentBytes).run(files));
+		}
+	}
+
+	/**
+	 * Truncated and malformed lines are skipped as a whole; the games around them still count.
+	 */
+	@Test
+	public void corruptLinesAreSkipped() throws IOException {
+		Random random = new Random(7);
+		String first = randomGame(random, "first");
+		String second = randomGame(random, "second");
+		Path clean = write("clean.ndjson", first, second);
+		Path corrupt = write("corrupt.ndjson",
+				first,
+				second.substring(0, second.length()/2),
+				"{\"game\":\"bad\",\"winner\":1,\"events\":[{\"t\":\"play\",\"p\":1,\"card\":\"1_2_c_s_horn\",\"mana\":3},}",
+				"not json at all",
+				second,
+				first.substring(0, first.length()-3));
+
+		CardBalanceStats expected = new CardBalanceJob(CARDS).run(Collections.singletonList(clean));
+		assertEquals(2, expected.getGames());
+		assertSameCounts(expected, new CardBalanceJob(CARDS).run(Collections.singletonList(corrupt)));
+		assertSameCounts(expected, new CardBalanceJob(CARDS, 16).run(Collections.singletonList(corrupt)));
+	}
+
+	private static String randomGame(Random random, String id) {
+		StringBuilder sb = new StringBuilder();
+		sb.append("{\"game\":\"").append(id).append("\",\"winner\":").append(1+random.nextInt(2)).append(",\"events\":[");
+		int events = random.nextInt(12);
+		int nextUnit = 1;
+		for (int e = 0; e < events; e++) {
+			if (e > 0) sb.append(',');
+			String card = CARDS.get(random.nextInt(CARDS.size()));
+			if (random.nextBoolean()) {
+				sb.append("{\"t\":\"play\",\"p\":").append(1+random.nextInt(2))
+				  .append(",\"card\":\"").append(card).append("\",\"mana\":").append(random.nextInt(6));
+				if (card.contains("_u_")) sb.append(",\"unit\":").append(nextUnit++);
+				sb.append('}');
+			} else if (random.nextBoolean()) {
+				sb.append("{\"t\":\"dmg\",\"src\":").append(1+random.nextInt(nextUnit)).append(",\"amt\":").append(random.nextInt(5)).append('}');
+			} else {
+				sb.append("{\"t\":\"dmg\",\"card\":\"").append(card).append("\",\"amt\":").append(random.nextInt(5)).append('}');
+			}
+		}
+		return sb.append("]}").toString();
+	}
+
+	private Path write(String name, String... lines) throws IOException {
+		Path file = dir.resolve(name);
+		Files.write(file, (String.join("\n", lines)+"\n").getBytes(StandardCharsets.UTF_8));
+		return file;
+	}
+
+	private static void assertSameCounts(CardBalanceStats expected, CardBalanceStats actual) {
+		assertEquals(expected.getGames(), actual.getGames());
+		assertArrayEquals(expected.plays, actual.plays);
+		assertArrayEquals(expected.manaSpent, actual.manaSpent);
+		assertArrayEquals(expected.unitsSummoned, actual.unitsSummoned);
+		assertArrayEquals(expected.damage, actual.damage);
+		assertArrayEquals(expected.playerGames, actual.playerGames);
+		assertArrayEquals(expected.wins, actual.wins);
+	}
+}
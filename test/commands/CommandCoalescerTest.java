@@ -0,0 +1,195 @@
+package commands;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import akka.actor.ActorRef;
+import akka.actor.ActorSystem;
+import play.libs.Json;
+import structures.basic.Player;
+
+/**
+ * Checks which commands CommandCoalescer folds together, and that BasicCommands sends what is
+ * held back before any barrier command so the order the player sees is unchanged.
+ */
+public class CommandCoalescerTest {
+
+	private ActorSystem system;
+	private ActorRef out;
+	private ClientSession session;
+	private final List<ObjectNode> sent = new ArrayList<>();
+
+	@Before
+	public void setUp() {
+		system = ActorSystem.create();
+		out = system.deadLetters();
+		session = ClientSession.open(out);
+		BasicCommands.altTell = sent::add;
+	}
+
+	@After
+	public void tearDown() {
+		session.exitEvent();
+		ClientSession.close(out);
+		BasicCommands.altTell = null;
+		system.terminate();
+	}
+
+	/**
+	 * State commands are keyed by what they set, anything else is a barrier. drawTile is left
+	 * to RenderedBoard.
+	 */
+	@Test
+	public void keysStateCommandsByWhatTheySet() {
+		assertEquals("setUnitHealth:7", CommandCoalescer.keyOf(unitStat("setUnitHealth", 7)));
+		assertEquals("setPlayer1Mana", CommandCoalescer.keyOf(message("setPlayer1Mana")));
+
+		ObjectNode notification = message("addPlayer1Notification");
+		notification.put("text", "Not enough mana");
+		assertEquals("addPlayer1Notification:Not enough mana", CommandCoalescer.keyOf(notification));
+
+		assertNull(CommandCoalescer.keyOf(drawTile(3, 2, 1)));
+		assertNull(CommandCoalescer.keyOf(message("deleteCard")));
+		assertNull(CommandCoalescer.keyOf(message("playUnitAnimation")));
+	}
+
+	/**
+	 * The unitDelta form (unitId) and the full unit form key the same unit the same way.
+	 */
+	@Test
+	public void keysUnitCommandsByUnitIdInBothForms() {
+		ObjectNode full = message("setUnitAttack");
+		full.set("unit", Json.newObject().put("id", 7));
+		ObjectNode delta = message("setUnitAttack");
+		delta.put("unitId", 7);
+
+		assertEquals(CommandCoalescer.keyOf(full), CommandCoalescer.keyOf(delta));
+	}
+
+	/**
+	 * A later command for the same key replaces the held one in its original place.
+	 */
+	@Test
+	public void laterCommandReplacesEarlierInPlace() {
+		CommandCoalescer coalescer = new CommandCoalescer();
+		ObjectNode first = unitStat("setUnitHealth", 1);
+		ObjectNode other = unitStat("setUnitHealth", 2);
+		ObjectNode second = unitStat("setUnitHealth", 1);
+
+		assertNull(coalescer.hold(CommandCoalescer.keyOf(first), first));
+		assertNull(coalescer.hold(CommandCoalescer.keyOf(other), other));
+		assertSame(first, coalescer.hold(CommandCoalescer.keyOf(second), second));
+
+		List<ObjectNode> drained = coalescer.drain();
+		assertEquals(2, drained.size());
+		assertSame(second, drained.get(0));
+		assertSame(other, drained.get(1));
+		assertEquals(1, coalescer.getCoalescedCount());
+		assertTrue(coalescer.isEmpty());
+	}
+
+	/**
+	 * Within an event, held commands go out before a barrier and the rest at the final flush.
+	 */
+	@Test
+	public void barrierSendsHeldCommandsFirst() {
+		session.enterEvent("tileclicked");
+
+		BasicCommands.setPlayer2Mana(out, new Player(20, 5));
+		BasicCommands.setPlayer2Mana(out, new Player(20, 4));
+		BasicCommands.setPlayer1Mana(out, new Player(20, 3));
+		assertTrue(sent.isEmpty());
+
+		BasicCommands.deleteCard(out, 1);
+		assertEquals(3, sent.size());
+		assertEquals("setPlayer2Mana", type(sent.get(0)));
+		assertEquals(4, sent.get(0).get("player").get("mana").asInt());
+		assertEquals("setPlayer1Mana", type(sent.get(1)));
+		assertEquals("deleteCard", type(sent.get(2)));
+
+		BasicCommands.setPlayer1Mana(out, new Player(20, 2));
+		assertEquals(3, sent.size());
+		BasicCommands.flush(out);
+		assertEquals(4, sent.size());
+		assertEquals(2, sent.get(3).get("player").get("mana").asInt());
+	}
+
+	/**
+	 * A pacing pause sends what is held back before it waits, so nothing is folded across it.
+	 */
+	@Test
+	public void pauseSendsHeldCommandsFirst() {
+		session.enterEvent("endturnclicked");
+
+		BasicCommands.setPlayer2Mana(out, new Player(20, 5));
+		BasicCommands.pause(out, 1);
+		assertEquals(1, sent.size());
+
+		BasicCommands.setPlayer2Mana(out, new Player(20, 4));
+		BasicCommands.flush(out);
+		assertEquals(2, sent.size());
+		assertEquals(5, sent.get(0).get("player").get("mana").asInt());
+		assertEquals(4, sent.get(1).get("player").get("mana").asInt());
+	}
+
+	/**
+	 * Commands replaced before being sent are not counted as sent.
+	 */
+	@Test
+	public void replacedCommandsAreNotCountedAsSent() {
+		session.enterEvent("tileclicked");
+		long before = BasicCommands.commandsSentOnThisThread();
+
+		BasicCommands.setPlayer1Mana(out, new Player(20, 3));
+		BasicCommands.setPlayer1Mana(out, new Player(20, 2));
+		BasicCommands.setPlayer1Mana(out, new Player(20, 1));
+		BasicCommands.flush(out);
+
+		assertEquals(1, sent.size());
+		assertEquals(1, BasicCommands.commandsSentOnThisThread()-before);
+	}
+
+	/**
+	 * Outside an event nothing is held back.
+	 */
+	@Test
+	public void sendsImmediatelyOutsideAnEvent() {
+		BasicCommands.setPlayer1Mana(out, new Player(20, 3));
+		BasicCommands.setPlayer1Mana(out, new Player(20, 2));
+		assertEquals(2, sent.size());
+	}
+
+	private static ObjectNode message(String type) {
+		ObjectNode message = Json.newObject();
+		message.put("messagetype", type);
+		return message;
+	}
+
+	private static ObjectNode drawTile(int x, int y, int mode) {
+		ObjectNode message = message("drawTile");
+		message.set("tile", Json.newObject().put("tilex", x).put("tiley", y));
+		message.put("mode", mode);
+		return message;
+	}
+
+	private static ObjectNode unitStat(String type, int unitId) {
+		ObjectNode message = message(type);
+		message.put("unitId", unitId);
+		return message;
+	}
+
+	private static String type(ObjectNode message) {
+		return message.get("messagetype").asText();
+	}
+}
@@ -0,0 +1,198 @@
+package commands;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Test;
+
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import akka.actor.ActorRef;
+import akka.actor.ActorSystem;
+import play.libs.Json;
+
+/**
+ * Checks the lanes, the ack window and the overflow handling of OutboundQueue.
+ */
+public class OutboundQueueTest {
+
+	/**
+	 * Idle animations, effects, projectiles and notifications are cosmetic, everything else is critical.
+	 */
+	@Test
+	public void classifiesCosmeticCommands() {
+		assertTrue(OutboundQueue.isCosmetic(message("playEffectAnimation")));
+		assertTrue(OutboundQueue.isCosmetic(message("addPlayer1Notification")));
+		assertTrue(OutboundQueue.isCosmetic(animation("idle")));
+		assertFalse(OutboundQueue.isCosmetic(animation("attack")));
+		assertFalse(OutboundQueue.isCosmetic(message("drawTile")));
+		assertFalse(OutboundQueue.isCosmetic(message("setUnitHealth")));
+		assertFalse(OutboundQueue.isCosmetic(message("ERR")));
+	}
+
+	/**
+	 * The two lanes are drained in the order the messages were offered.
+	 */
+	@Test
+	public void drainsLanesInOfferOrder() {
+		OutboundQueue queue = new OutboundQueue(16, 16, 16);
+		ObjectNode tile = message("drawTile");
+		ObjectNode effect = message("playEffectAnimation");
+		ObjectNode health = message("setUnitHealth");
+		ObjectNode idle = animation("idle");
+
+		queue.offer(tile);
+		queue.offer(effect);
+		queue.offer(health);
+		queue.offer(idle);
+
+		assertSame(tile, queue.poll());
+		assertSame(effect, queue.poll());
+		assertSame(health, queue.poll());
+		assertSame(idle, queue.poll());
+		assertNull(queue.poll());
+	}
+
+	/**
+	 * A full cosmetic lane drops its oldest message; critical messages are kept.
+	 */
+	@Test
+	public void fullCosmeticLaneDropsOldest() {
+		OutboundQueue queue = new OutboundQueue(16, 16, 2);
+		ObjectNode first = message("playEffectAnimation");
+		ObjectNode second = message("playEffectAnimation");
+		ObjectNode third = message("playEffectAnimation");
+
+		assertNull(queue.offer(first));
+		assertNull(queue.offer(message("drawTile")));
+		assertNull(queue.offer(second));
+		assertSame(first, queue.offer(third));
+		assertEquals(3, queue.size());
+		assertFalse(queue.isOverflowed());
+	}
+
+	/**
+	 * A full critical lane marks the queue overflowed and empties it; nothing more is queued.
+	 */
+	@Test
+	public void fullCriticalLaneOverflows() {
+		OutboundQueue queue = new OutboundQueue(16, 2, 16);
+		queue.offer(message("drawTile"));
+		queue.offer(message("drawTile"));
+		assertFalse(queue.isOverflowed());
+
+		queue.offer(message("drawTile"));
+		assertTrue(queue.isOverflowed());
+		assertEquals(0, queue.size());
+
+		assertNull(queue.offer(message("drawTile")));
+		assertEquals(0, queue.size());
+		assertNull(queue.poll());
+	}
+
+	/**
+	 * With the default window at most 256 messages are unacknowledged; an ack frees room again.
+	 */
+	@Test
+	public void defaultWindowLimitsMessagesInFlight() {
+		OutboundQueue queue = new OutboundQueue(OutboundQueue.DEFAULT_WINDOW, 4096, 256);
+		assertEquals(256, OutboundQueue.DEFAULT_WINDOW);
+		for (int i = 0; i < 300; i++) queue.offer(message("drawTile"));
+
+		assertEquals(256, pollAll(queue));
+		assertEquals(256, queue.inFlight());
+		assertEquals(44, queue.size());
+
+		queue.ack(10);
+		assertEquals(10, pollAll(queue));
+		assertEquals(256, queue.inFlight());
+
+		queue.ack(266);
+		assertEquals(34, pollAll(queue));
+		assertEquals(34, queue.inFlight());
+	}
+
+	/**
+	 * An ack never counts more messages than were sent, and an older (smaller) ack is ignored.
+	 */
+	@Test
+	public void ackIsClampedAndMonotonic() {
+		OutboundQueue queue = new OutboundQueue(4, 16, 16);
+		for (int i = 0; i < 10; i++) queue.offer(message("drawTile"));
+		assertEquals(4, pollAll(queue));
+
+		queue.ack(100);
+		assertEquals(0, queue.inFlight());
+
+		assertEquals(4, pollAll(queue));
+		queue.ack(2);
+		assertEquals(4, queue.inFlight());
+
+		queue.ack(6);
+		assertEquals(2, queue.inFlight());
+	}
+
+	/**
+	 * Front-ends without the ack feature are not flow controlled.
+	 */
+	@Test
+	public void unlimitedQueueIsNotFlowControlled() {
+		OutboundQueue queue = OutboundQueue.unlimited();
+		assertFalse(queue.isFlowControlled());
+		for (int i = 0; i < 1000; i++) queue.offer(message("drawTile"));
+		assertEquals(1000, pollAll(queue));
+	}
+
+	/**
+	 * A websocket session is flow controlled even without the ack feature, and messages sent
+	 * outside the game commands (errors) go through its queue too.
+	 */
+	@Test
+	public void socketSessionIsFlowControlledWithoutAck() {
+		ActorSystem system = ActorSystem.create();
+		ActorRef out = system.deadLetters();
+		List<ObjectNode> sent = new ArrayList<>();
+		BasicCommands.altTell = sent::add;
+		try {
+			ClientSession session = ClientSession.openSocket(out, Collections.emptySet());
+			assertTrue(session.getOutbound().isFlowControlled());
+			assertFalse(ClientSession.open(null, Collections.emptySet()).getOutbound().isFlowControlled());
+
+			for (int i = 0; i < 300; i++) BasicCommands.reportError(out, "error "+i);
+			assertEquals(OutboundQueue.DEFAULT_WINDOW, sent.size());
+
+			BasicCommands.acknowledge(out, 100);
+			assertEquals(300, sent.size());
+			assertEquals("error 299", sent.get(299).get("error").asText());
+		} finally {
+			BasicCommands.altTell = null;
+			ClientSession.close(out);
+			system.terminate();
+		}
+	}
+
+	private static int pollAll(OutboundQueue queue) {
+		int polled = 0;
+		while (queue.poll()!=null) polled++;
+		return polled;
+	}
+
+	private static ObjectNode message(String type) {
+		ObjectNode message = Json.newObject();
+		message.put("messagetype", type);
+		return message;
+	}
+
+	private static ObjectNode animation(String animation) {
+		ObjectNode message = message("playUnitAnimation");
+		message.put("animation", animation);
+		return message;
+	}
+}
@@ -0,0 +1,123 @@
+package structures;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+import structures.basic.Position;
+
+/**
+ * Checks that the occupancy masks and coverage maps Board updates on every put/move/remove
+ * match a full recompute over the units on the board.
+ */
+public class BoardTest {
+
+	private static final int WIDTH = 9;
+	private static final int HEIGHT = 5;
+
+	/**
+	 * Random puts, moves and removes of units of both players; after every step the masks must
+	 * equal the ones recomputed from BoardMasks over all units.
+	 */
+	@Test
+	public void incrementalMasksMatchFullRecompute() {
+		Random random = new Random(3);
+		Board board = new Board(WIDTH, HEIGHT);
+		UnitEntity[] units = new UnitEntity[WIDTH*HEIGHT];
+		int nextId = 1;
+
+		for (int step = 0; step < 5000; step++) {
+			int from = random.nextInt(units.length);
+			int to = random.nextInt(units.length);
+			if (units[from]==null) {
+				units[from] = unit(nextId++, 1+random.nextInt(2));
+				board.putUnit(position(from), units[from]);
+			} else if (units[to]==null && random.nextBoolean()) {
+				board.moveUnit(position(from), position(to));
+				units[to] = units[from];
+				units[from] = null;
+			} else {
+				board.removeUnit(position(from));
+				units[from] = null;
+			}
+			assertMatchesRecompute(board, units);
+		}
+	}
+
+	/**
+	 * Two units of the same player next to a tile count as two attackers; the tile stays
+	 * covered until both are gone.
+	 */
+	@Test
+	public void overlappingCoverageIsCounted() {
+		Board board = new Board(WIDTH, HEIGHT);
+		Position target = new Position(0, 0, 5, 3);
+		board.putUnit(new Position(0, 0, 4, 3), unit(1, 1));
+		board.putUnit(new Position(0, 0, 6, 3), unit(2, 1));
+		assertEquals(2, board.getAttackerCount(1, target));
+
+		board.removeUnit(new Position(0, 0, 4, 3));
+		assertEquals(1, board.getAttackerCount(1, target));
+		assertTrue((board.getAttackCoverage(1) & board.bit(target))!=0);
+
+		board.moveUnit(new Position(0, 0, 6, 3), new Position(0, 0, 9, 5));
+		assertEquals(0, board.getAttackerCount(1, target));
+		assertFalse((board.getAttackCoverage(1) & board.bit(target))!=0);
+		assertEquals(0, board.getAttackCoverage(2));
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void rejectsPutOnOccupiedTile() {
+		Board board = new Board(WIDTH, HEIGHT);
+		board.putUnit(new Position(0, 0, 2, 2), unit(1, 1));
+		board.putUnit(new Position(0, 0, 2, 2), unit(2, 2));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void rejectsTileOffTheBoard() {
+		new Board(WIDTH, HEIGHT).isOccupied(new Position(0, 0, 10, 1));
+	}
+
+	private static void assertMatchesRecompute(Board board, UnitEntity[] units) {
+		BoardMasks masks = board.getMasks();
+		for (int player = 1; player <= 2; player++) {
+			long occupied = 0;
+			long attack = 0;
+			long threat = 0;
+			int[] attackers = new int[units.length];
+			for (int i = 0; i < units.length; i++) {
+				if (units[i]==null || units[i].getOwnerPlayerId()!=player) continue;
+				occupied |= 1L << i;
+				attack |= masks.adjacent(i);
+				threat |= masks.threat(i);
+				for (long m = masks.adjacent(i); m!=0; m &= m-1) attackers[Long.numberOfTrailingZeros(m)]++;
+			}
+			assertEquals(occupied, board.getOccupiedMask(player));
+			assertEquals(attack, board.getAttackCoverage(player));
+			assertEquals(threat, board.getThreatCoverage(player));
+			for (int i = 0; i < units.length; i++) {
+				assertEquals(attackers[i], board.getAttackerCount(player, position(i)));
+			}
+		}
+		for (int i = 0; i < units.length; i++) {
+			assertSame(units[i], board.getUnitAt(position(i)).orElse(null));
+		}
+		assertEquals(board.getOccupiedMask(1) | board.getOccupiedMask(2), board.getOccupiedMask());
+	}
+
+	private static Position position(int index) {
+		return new Position(0, 0, index%WIDTH+1, index/WIDTH+1);
+	}
+
+	private static UnitEntity unit(int id, int owner) {
+		UnitEntity unit = new UnitEntity();
+		unit.setId(id);
+		unit.setOwnerPlayerId(owner);
+		return unit;
+	}
+}
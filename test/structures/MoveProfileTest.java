@@ -0,0 +1,116 @@
+package structures;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+
+import org.junit.Test;
+
+import structures.basic.Position;
+
+/**
+ * Checks the move tiles Board.reachable returns per MoveProfile, and that its cache is dropped
+ * when the board changes.
+ */
+public class MoveProfileTest {
+
+	private final Board board = new Board(9, 5);
+
+	/**
+	 * On an open board a default move reaches 2 tiles in each cardinal direction and 1 diagonally.
+	 */
+	@Test
+	public void defaultMoveOnOpenBoard() {
+		put(3, 3, 1, 1);
+		long reach = board.reachable(at(3, 3), MoveProfile.DEFAULT);
+
+		assertEquals(12, Long.bitCount(reach));
+		assertReach(reach, true, 1, 3);
+		assertReach(reach, true, 5, 3);
+		assertReach(reach, true, 3, 1);
+		assertReach(reach, true, 3, 5);
+		assertReach(reach, true, 4, 4);
+		assertReach(reach, false, 5, 5);
+		assertReach(reach, false, 3, 3);
+	}
+
+	/**
+	 * An enemy unit on the first tile stops the two-step move behind it.
+	 */
+	@Test
+	public void enemyBlocksTwoStepMove() {
+		put(3, 3, 1, 1);
+		put(4, 3, 2, 2);
+		long reach = board.reachable(at(3, 3), MoveProfile.DEFAULT);
+
+		assertReach(reach, false, 4, 3);
+		assertReach(reach, false, 5, 3);
+		assertReach(reach, true, 2, 3);
+		assertReach(reach, true, 1, 3);
+	}
+
+	/**
+	 * A friendly unit can be walked past but not stood on.
+	 */
+	@Test
+	public void friendlyUnitCanBePassed() {
+		put(3, 3, 1, 1);
+		put(4, 3, 2, 1);
+		long reach = board.reachable(at(3, 3), MoveProfile.DEFAULT);
+
+		assertReach(reach, false, 4, 3);
+		assertReach(reach, true, 5, 3);
+	}
+
+	/**
+	 * A flying unit reaches every empty tile, whatever is in the way.
+	 */
+	@Test
+	public void flyingReachesEveryEmptyTile() {
+		put(3, 3, 1, 1);
+		put(4, 3, 2, 2);
+		put(9, 5, 3, 1);
+		long reach = board.reachable(at(3, 3), MoveProfile.FLYING);
+
+		assertEquals(board.getMasks().all() & ~board.getOccupiedMask(), reach);
+		assertEquals(9*5-3, Long.bitCount(reach));
+	}
+
+	/**
+	 * Every board change bumps the version, and a cached result is recomputed afterwards.
+	 */
+	@Test
+	public void cacheIsDroppedWhenBoardChanges() {
+		put(3, 3, 1, 1);
+		long before = board.reachable(at(3, 3), MoveProfile.DEFAULT);
+		assertEquals(before, board.reachable(at(3, 3), MoveProfile.DEFAULT));
+
+		int version = board.getVersion();
+		put(4, 3, 2, 2);
+		assertEquals(version+1, board.getVersion());
+		long after = board.reachable(at(3, 3), MoveProfile.DEFAULT);
+		assertNotEquals(before, after);
+		assertReach(after, false, 5, 3);
+
+		board.moveUnit(at(4, 3), at(8, 1));
+		assertEquals(version+3, board.getVersion());
+		assertEquals(before, board.reachable(at(3, 3), MoveProfile.DEFAULT));
+
+		board.removeUnit(at(8, 1));
+		assertEquals(version+4, board.getVersion());
+	}
+
+	private void put(int tilex, int tiley, int id, int owner) {
+		UnitEntity unit = new UnitEntity();
+		unit.setId(id);
+		unit.setOwnerPlayerId(owner);
+		board.putUnit(at(tilex, tiley), unit);
+	}
+
+	private void assertReach(long reach, boolean expected, int tilex, int tiley) {
+		assertEquals("("+tilex+","+tiley+")", expected, (reach & board.bit(at(tilex, tiley)))!=0);
+	}
+
+	private static Position at(int tilex, int tiley) {
+		return new Position(0, 0, tilex, tiley);
+	}
+}
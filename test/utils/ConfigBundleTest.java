@@ -0,0 +1,131 @@
+package utils;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import structures.basic.Card;
+import structures.basic.EffectAnimation;
+import structures.basic.Tile;
+
+/**
+ * Compiles conf/gameconfs into a ConfigBundle and checks that every bundled file decodes to
+ * the same object as parsing its JSON file.
+ */
+public class ConfigBundleTest {
+
+	private static final String SOURCE_DIR = "conf/gameconfs";
+
+	private final ObjectMapper mapper = new ObjectMapper();
+	private File bundleFile;
+	private List<String> skipped;
+	private ConfigBundle bundle;
+
+	@Before
+	public void setUp() throws Exception {
+		ConfigBundle.uninstall();
+		bundleFile = File.createTempFile("gameconfs", ".bundle");
+		ConfigBundleCompiler compiler = new ConfigBundleCompiler();
+		skipped = compiler.addAll(SOURCE_DIR);
+		compiler.write(bundleFile.getPath());
+		bundle = ConfigBundle.open(bundleFile.getPath());
+	}
+
+	@After
+	public void tearDown() {
+		ConfigBundle.uninstall();
+		bundleFile.delete();
+	}
+
+	/**
+	 * Cards, units, effects and tiles decode to the same values as their JSON files.
+	 */
+	@Test
+	public void everyBundledFileMatchesItsJson() throws Exception {
+		int compared = 0;
+		for (String file : jsonFiles()) {
+			if (!bundle.contains(file)) continue;
+
+			JsonNode json = mapper.readTree(new File(file));
+			Object fromJson;
+			Object fromBundle;
+			if (json.has("cardname")) {
+				fromJson = mapper.treeToValue(json, Card.class);
+				fromBundle = bundle.card(file, Card.class);
+			} else if (json.has("animations")) {
+				fromJson = BasicObjectBuilders.parseUnitJson(file);
+				fromBundle = bundle.unitPrototype(file);
+			} else if (json.has("animationTextures")) {
+				fromJson = mapper.treeToValue(json, EffectAnimation.class);
+				fromBundle = bundle.effect(file);
+			} else {
+				fromJson = mapper.treeToValue(json, Tile.class);
+				fromBundle = bundle.tile(file);
+			}
+
+			assertNotNull(file, fromBundle);
+			assertEquals(file, mapper.valueToTree(fromJson), mapper.valueToTree(fromBundle));
+			compared++;
+		}
+		assertEquals(bundle.size(), compared);
+		assertTrue(compared > 0);
+	}
+
+	/**
+	 * A file is only returned as the kind it was bundled as.
+	 */
+	@Test
+	public void wrongKindIsNotInBundle() throws Exception {
+		assertNotNull(bundle.tile(StaticConfFiles.tileConf));
+		assertNull(bundle.card(StaticConfFiles.tileConf, Card.class));
+		assertNull(bundle.unitPrototype(StaticConfFiles.tileConf));
+	}
+
+	/**
+	 * Files that are no card, unit, effect or tile are left out and keep being read as JSON.
+	 */
+	@Test
+	public void skippedFilesAreNotBundled() {
+		for (String file : skipped) assertFalse(file, bundle.contains(file));
+	}
+
+	/**
+	 * A bundle written after the JSON files is not stale.
+	 */
+	@Test
+	public void freshBundleIsNotStale() throws Exception {
+		assertFalse(ConfigBundle.isStale(bundleFile.getPath(), SOURCE_DIR));
+	}
+
+	@Test(expected = IOException.class)
+	public void rejectsFileThatIsNoBundle() throws Exception {
+		ConfigBundle.open(StaticConfFiles.tileConf);
+	}
+
+	private static List<String> jsonFiles() throws IOException {
+		try (Stream<Path> paths = Files.walk(Paths.get(SOURCE_DIR))) {
+			return paths.map(p -> ConfigBundle.key(p.toString()))
+					.filter(f -> f.endsWith(".json"))
+					.sorted()
+					.collect(Collectors.toList());
+		}
+	}
+}
@@ -0,0 +1,107 @@
+package utils;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ * Checks IntObjectMap against a HashMap over random put/get/remove sequences.
+ */
+public class IntObjectMapTest {
+
+	/**
+	 * Few distinct keys and many removes, so probe runs collide, wrap around the table and are
+	 * shifted back often.
+	 */
+	@Test
+	public void matchesHashMapWithDenseKeys() {
+		checkAgainstHashMap(new Random(1), 40, 20000);
+	}
+
+	/**
+	 * Many distinct keys, so the table resizes several times.
+	 */
+	@Test
+	public void matchesHashMapWithSparseKeys() {
+		checkAgainstHashMap(new Random(2), 5000, 50000);
+	}
+
+	/**
+	 * Zero, negative and extreme keys are ordinary keys.
+	 */
+	@Test
+	public void storesAnyIntKey() {
+		IntObjectMap<String> map = new IntObjectMap<>();
+		int[] keys = {0, -1, 1, Integer.MIN_VALUE, Integer.MAX_VALUE};
+		for (int key : keys) map.put(key, "v"+key);
+		for (int key : keys) assertEquals("v"+key, map.get(key));
+		assertEquals(keys.length, map.size());
+
+		assertEquals("v0", map.remove(0));
+		assertNull(map.get(0));
+		assertEquals("v-1", map.get(-1));
+	}
+
+	/**
+	 * Removing every key in turn keeps the remaining ones reachable.
+	 */
+	@Test
+	public void removeKeepsProbeRunsReachable() {
+		IntObjectMap<Integer> map = new IntObjectMap<>();
+		for (int key = 0; key < 7; key++) map.put(key, key);
+		for (int removed = 0; removed < 7; removed++) {
+			assertEquals(Integer.valueOf(removed), map.remove(removed));
+			assertNull(map.remove(removed));
+			for (int key = removed+1; key < 7; key++) assertEquals(Integer.valueOf(key), map.get(key));
+		}
+		assertTrue(map.isEmpty());
+	}
+
+	@Test
+	public void clearEmptiesTheMap() {
+		IntObjectMap<String> map = new IntObjectMap<>();
+		for (int key = 0; key < 100; key++) map.put(key, "v");
+		map.clear();
+		assertTrue(map.isEmpty());
+		assertFalse(map.containsKey(5));
+		map.put(5, "w");
+		assertEquals("w", map.get(5));
+		assertEquals(1, map.size());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void rejectsNullValues() {
+		new IntObjectMap<String>().put(1, null);
+	}
+
+	private static void checkAgainstHashMap(Random random, int keyRange, int operations) {
+		IntObjectMap<Integer> map = new IntObjectMap<>();
+		Map<Integer, Integer> expected = new HashMap<>();
+		for (int op = 0; op < operations; op++) {
+			int key = random.nextInt(keyRange)-keyRange/2;
+			switch (random.nextInt(3)) {
+			case 0:
+				int value = random.nextInt();
+				assertEquals(expected.put(key, value), map.put(key, value));
+				break;
+			case 1:
+				assertEquals(expected.remove(key), map.remove(key));
+				break;
+			default:
+				assertEquals(expected.get(key), map.get(key));
+				assertEquals(expected.containsKey(key), map.containsKey(key));
+			}
+			assertEquals(expected.size(), map.size());
+		}
+		for (int key = -keyRange/2; key < keyRange-keyRange/2; key++) {
+			assertEquals(expected.get(key), map.get(key));
+		}
+	}
+}